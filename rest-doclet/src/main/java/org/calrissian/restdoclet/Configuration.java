@@ -15,8 +15,15 @@
  *******************************************************************************/
 package org.calrissian.restdoclet;
 
+import com.sun.javadoc.DocErrorReporter;
 import org.calrissian.restdoclet.writer.simple.SimpleHtmlWriter;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
 public class Configuration {
 
     private enum ConfigOption {
@@ -24,14 +31,35 @@ public class Configuration {
         TITLE("t", "REST Endpoint Descriptions"),
         STYLESHEET("stylesheet", "./stylesheet.css"),
         API_VERSION("version", null),
-        URL("url", "/");
+        URL("url", "/"),
+        THREADS("threads", "1"),
+        SUPERCLASS_BOUNDARY("boundary", "java.,javax.,org.springframework."),
+        INCLUDE("include", ""),
+        EXCLUDE("exclude", ""),
+        TIME_BUDGET("budget", "30000"),
+        DEPTH_BUDGET("maxdepth", "32"),
+        MODEL("model", "objects"),
+        COLLECTORS("collectors", ""),
+        CACHE("cache", null),
+        TIMINGS("timings");
 
         private String option;
         private String defaultValue;
+        private int length;
 
         private ConfigOption(String option, String defaultValue) {
             this.option = "-" + option;
             this.defaultValue = defaultValue;
+            this.length = 2;
+        }
+
+        /**
+         * Creates a flag option, which takes no value.
+         */
+        private ConfigOption(String option) {
+            this.option = "-" + option;
+            this.defaultValue = null;
+            this.length = 1;
         }
 
         public String getOption() {
@@ -41,18 +69,65 @@ public class Configuration {
         public String getDefaultValue() {
             return defaultValue;
         }
+
+        public int getLength() {
+            return length;
+        }
     }
 
+    //Options whose value has to be a whole number.
+    private static final Set<ConfigOption> NUMBER_OPTIONS =
+            EnumSet.of(ConfigOption.THREADS, ConfigOption.TIME_BUDGET, ConfigOption.DEPTH_BUDGET);
+
     private String[][] options;
+    private DocErrorReporter reporter;
+    private String outputDirectory = ".";
 
     public Configuration(String[][] options) {
+        this(options, null);
+    }
+
+    public Configuration(String[][] options, DocErrorReporter reporter) {
         this.options = options;
+        this.reporter = reporter;
+    }
+
+    /**
+     * Reporter for the warnings of the run, or null if there is none.
+     */
+    public DocErrorReporter getReporter() {
+        return reporter;
     }
 
     public String getOutputFormat() {
         return getOption(ConfigOption.OUTPUT_FORMAT);
     }
 
+    /**
+     * The requested output formats, without duplicates.  More than one format can be requested as a comma separated
+     * list.
+     */
+    public Collection<String> getOutputFormats() {
+        return new LinkedHashSet<String>(split(getOption(ConfigOption.OUTPUT_FORMAT)));
+    }
+
+    /**
+     * Directory the output is written to.  It is the current directory unless the configuration was made for one of
+     * several output formats.
+     */
+    public String getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    /**
+     * A copy of the configuration which writes its output to another directory.
+     */
+    public Configuration withOutputDirectory(String outputDirectory) {
+        Configuration config = new Configuration(options, reporter);
+        config.outputDirectory = outputDirectory;
+        return config;
+    }
+
     public String getDocumentTitle() {
         return getOption(ConfigOption.TITLE);
     }
@@ -77,10 +152,119 @@ public class Configuration {
         return getOption(ConfigOption.STYLESHEET.getOption(), null) == null;
     }
 
+    /**
+     * Number of threads used to build the class descriptors.
+     */
+    public int getThreads() {
+        return Math.max(1, Integer.parseInt(getOption(ConfigOption.THREADS)));
+    }
+
+    /**
+     * Package or class name prefixes at which the search for inherited endpoints stops.
+     */
+    public Collection<String> getSuperclassBoundary() {
+        return split(getOption(ConfigOption.SUPERCLASS_BOUNDARY));
+    }
+
+    /**
+     * The superclass boundary used when the option is not given.
+     */
+    public static Collection<String> getDefaultSuperclassBoundary() {
+        return split(ConfigOption.SUPERCLASS_BOUNDARY.getDefaultValue());
+    }
+
+    /**
+     * Package or class name patterns of the classes to document.  When empty every class is documented.  The option
+     * can be repeated, see {@link org.calrissian.restdoclet.util.NameFilter} for the pattern syntax.
+     */
+    public Collection<String> getIncludes() {
+        return getAllValues(ConfigOption.INCLUDE);
+    }
+
+    /**
+     * Package or class name patterns of the classes which should not be documented.  The option can be repeated.
+     */
+    public Collection<String> getExcludes() {
+        return getAllValues(ConfigOption.EXCLUDE);
+    }
+
+    /**
+     * Milliseconds allowed for describing a single class, or for expanding a single type in the output.  Zero disables
+     * the limit.
+     */
+    public long getTimeBudget() {
+        return Math.max(0, Long.parseLong(getOption(ConfigOption.TIME_BUDGET)));
+    }
+
+    /**
+     * Levels of nesting allowed while describing a single class, or expanding a single type in the output.  Zero
+     * disables the limit.
+     */
+    public int getDepthBudget() {
+        return Math.max(0, Integer.parseInt(getOption(ConfigOption.DEPTH_BUDGET)));
+    }
+
+    /**
+     * How the collected endpoints are held for the writers which need all of them at once, either as objects or as
+     * the rows of an {@link org.calrissian.restdoclet.model.EndpointTable}.
+     */
+    public String getModel() {
+        return getOption(ConfigOption.MODEL);
+    }
+
+    /**
+     * Names of the collectors to run, in order.  When empty every collector which is found is run.
+     */
+    public Collection<String> getCollectors() {
+        return new LinkedHashSet<String>(split(getOption(ConfigOption.COLLECTORS)));
+    }
+
+    /**
+     * Directory the class descriptors are cached in between runs, or null if they are not cached.
+     */
+    public String getCacheDirectory() {
+        return getOption(ConfigOption.CACHE);
+    }
+
+    /**
+     * Whether the time spent in each phase of the run should be reported.
+     */
+    public boolean isTimings() {
+        return hasOption(ConfigOption.TIMINGS);
+    }
+
     private String getOption(ConfigOption configOption) {
         return getOption(configOption.getOption(), configOption.getDefaultValue());
     }
 
+    private boolean hasOption(ConfigOption configOption) {
+        for (String[] option : options) {
+            if (option[0].equals(configOption.getOption())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Collection<String> getAllValues(ConfigOption configOption) {
+        Collection<String> values = new ArrayList<String>();
+        for (String[] option : options) {
+            if (option[0].equals(configOption.getOption())) {
+                values.addAll(split(option[1]));
+            }
+        }
+        return values;
+    }
+
+    private static Collection<String> split(String value) {
+        Collection<String> values = new ArrayList<String>();
+        for (String item : value.split(","))
+            if (!item.trim().isEmpty())
+                values.add(item.trim());
+
+        return values;
+    }
+
     private String getOption(String name, String defaultValue) {
         for (String[] option : options) {
             if (option[0].equals(name)) {
@@ -90,11 +274,43 @@ public class Configuration {
         return defaultValue;
     }
 
+    /**
+     * Checks the values of the options, reporting each invalid one as an error.
+     *
+     * @return whether every option is valid
+     */
+    public static boolean validOptions(String[][] options, DocErrorReporter reporter) {
+        boolean valid = true;
+        for (String[] option : options) {
+            for (ConfigOption configOption : NUMBER_OPTIONS) {
+                if (option[0].equals(configOption.getOption()) && !isNumber(configOption, option[1])) {
+                    reporter.printError("Invalid value for " + option[0] + ": " + option[1] + ", expected a whole number");
+                    valid = false;
+                }
+            }
+        }
+
+        return valid;
+    }
+
+    private static boolean isNumber(ConfigOption configOption, String value) {
+        try {
+            //The time budget is in milliseconds, so it is read as a long.
+            if (configOption == ConfigOption.TIME_BUDGET)
+                Long.parseLong(value);
+            else
+                Integer.parseInt(value);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
     public static int getOptionLength(String option) {
 
         for (ConfigOption configOption : ConfigOption.values())
             if (option.equals(configOption.getOption()))
-                return 2;
+                return configOption.getLength();
 
         return 0;
     }
@@ -16,31 +16,38 @@
 package org.calrissian.restdoclet;
 
 
+import com.sun.javadoc.DocErrorReporter;
 import com.sun.javadoc.Doclet;
 import com.sun.javadoc.LanguageVersion;
 import com.sun.javadoc.RootDoc;
-import org.calrissian.restdoclet.collector.Collector;
-import org.calrissian.restdoclet.collector.jaxrs.JaxRSCollector;
-import org.calrissian.restdoclet.collector.spring.SpringCollector;
-import org.calrissian.restdoclet.model.ClassDescriptor;
+import org.calrissian.restdoclet.collector.AbstractCollector;
+import org.calrissian.restdoclet.collector.CollectorDispatcher;
+import org.calrissian.restdoclet.collector.CollectorProvider;
+import org.calrissian.restdoclet.util.DocCache;
+import org.calrissian.restdoclet.util.PathTrie;
+import org.calrissian.restdoclet.util.StringPool;
+import org.calrissian.restdoclet.util.TypeRefs;
+import org.calrissian.restdoclet.writer.DescriptorSink;
+import org.calrissian.restdoclet.writer.FanOutSink;
+import org.calrissian.restdoclet.writer.IndexSink;
+import org.calrissian.restdoclet.writer.QueuedSink;
 import org.calrissian.restdoclet.writer.Writer;
+import org.calrissian.restdoclet.writer.WriterProvider;
 import org.calrissian.restdoclet.writer.simple.SimpleHtmlWriter;
-import org.calrissian.restdoclet.writer.swagger.SwaggerWriter;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
 
 import static org.calrissian.restdoclet.Configuration.getOptionLength;
 
 public class RestDoclet extends Doclet {
 
-    private static final Collection<Collector> collectors = Arrays.<Collector>asList(
-            new SpringCollector(),
-            new JaxRSCollector()
-    );
-
     /**
      * Generate documentation here.
      * This method is required for all doclets.
@@ -49,27 +56,127 @@ public class RestDoclet extends Doclet {
      */
     public static boolean start(RootDoc root) {
 
-        Configuration config = new Configuration(root.options());
-
-        Collection<ClassDescriptor> classDescriptors = new ArrayList<ClassDescriptor>();
-
-        for (Collector collector : collectors)
-            classDescriptors.addAll(collector.getDescriptors(root));
+        Configuration config = new Configuration(root.options(), root);
 
-        Writer writer;
-        if (config.getOutputFormat().equals(SwaggerWriter.OUTPUT_OPTION_NAME))
-            writer = new SwaggerWriter();
-        else
-            writer = new SimpleHtmlWriter();
+        try {
+            long start = System.currentTimeMillis();
+            int count;
+            DescriptorSink sink = open(config);
+            try {
+                count = new CollectorDispatcher(getCollectors(config), config).collect(root, sink);
+            } finally {
+                sink.close();
+            }
+            long written = System.currentTimeMillis();
 
+            if (config.isTimings()) {
+                root.printNotice("Collected " + count + " class descriptors from " +
+                        root.classes().length + " classes and wrote " + config.getOutputFormat() + " output in " +
+                        (written - start) + " ms");
+                root.printNotice("Pooled " + StringPool.size() + " distinct strings, model text reduced from " +
+                        StringPool.getRequestedSize() / 1024 + " KB to " + StringPool.getRetainedSize() / 1024 + " KB");
+            }
 
-        try {
-            writer.write(classDescriptors, config);
             return true;
         } catch (IOException e) {
             e.printStackTrace();
             return false;
+        } finally {
+            DocCache.clearAll();
+            PathTrie.clear();
+            TypeRefs.clear();
+            StringPool.clear();
+        }
+    }
+
+    /**
+     * Creates the collectors selected by name, in the order they were given.  When none are selected every collector
+     * which is found is created, in the order their providers are listed.
+     */
+    private static List<AbstractCollector> getCollectors(Configuration config) {
+        Map<String, CollectorProvider> providers = new LinkedHashMap<String, CollectorProvider>();
+        for (CollectorProvider provider : ServiceLoader.load(CollectorProvider.class, RestDoclet.class.getClassLoader()))
+            providers.put(provider.getName(), provider);
+
+        Collection<String> names = config.getCollectors();
+        if (names.isEmpty())
+            names = providers.keySet();
+
+        List<AbstractCollector> collectors = new ArrayList<AbstractCollector>(names.size());
+        for (String name : names) {
+            CollectorProvider provider = providers.get(name);
+            if (provider != null)
+                collectors.add(provider.create());
+            else
+                warn(config, "Unknown collector " + name + ", ignoring it");
+        }
+
+        return collectors;
+    }
+
+    /**
+     * Creates the writer of an output format.  An unknown format is written with the legacy writer, if it is found.
+     */
+    private static Writer getWriter(String outputFormat, Configuration config) throws IOException {
+        WriterProvider fallback = null;
+        for (WriterProvider provider : ServiceLoader.load(WriterProvider.class, RestDoclet.class.getClassLoader())) {
+            if (provider.getName().equals(outputFormat))
+                return provider.create();
+            if (provider.getName().equals(SimpleHtmlWriter.OUTPUT_OPTION_NAME))
+                fallback = provider;
         }
+
+        if (fallback == null)
+            throw new IOException("Unknown output format " + outputFormat);
+
+        warn(config, "Unknown output format " + outputFormat + ", writing " + SimpleHtmlWriter.OUTPUT_OPTION_NAME +
+                " instead");
+        return fallback.create();
+    }
+
+    private static void warn(Configuration config, String message) {
+        if (config.getReporter() != null)
+            config.getReporter().printWarning(message);
+        else
+            System.err.println("warning - " + message);
+    }
+
+    /**
+     * Opens the writer of every output format, each running on its own thread.  When more than one format is requested
+     * each writes to a subdirectory named after its format.  The writers which need every descriptor at once share a
+     * single index, which is built on a thread of its own.
+     */
+    static DescriptorSink open(Configuration config) throws IOException {
+        Collection<String> outputFormats = config.getOutputFormats();
+        List<QueuedSink> sinks = new ArrayList<QueuedSink>(outputFormats.size());
+        IndexSink indexSink = new IndexSink(config);
+        try {
+            for (String outputFormat : outputFormats) {
+                Configuration writerConfig = config;
+                if (outputFormats.size() > 1) {
+                    File directory = new File(config.getOutputDirectory(), outputFormat);
+                    if (!directory.isDirectory() && !directory.mkdirs())
+                        throw new IOException("Unable to create directory: " + directory);
+
+                    writerConfig = config.withOutputDirectory(directory.getPath());
+                }
+
+                Writer writer = getWriter(outputFormat, config);
+                DescriptorSink sink = writer.open(writerConfig);
+                if (sink != null)
+                    sinks.add(new QueuedSink(sink, outputFormat));
+                else
+                    indexSink.add(outputFormat, writer, writerConfig);
+            }
+
+            if (!indexSink.isEmpty())
+                sinks.add(new QueuedSink(indexSink, "index"));
+        } catch (IOException | RuntimeException e) {
+            new FanOutSink(sinks).close();
+            throw e;
+        }
+
+        return new FanOutSink(sinks);
     }
 
     /**
@@ -81,6 +188,16 @@ public class RestDoclet extends Doclet {
         return getOptionLength(option);
     }
 
+    /**
+     * Validates the values of the command line options before the run starts.
+     * @param options the options and their values
+     * @param reporter reporter for the invalid options
+     * @return true if all the options are valid
+     */
+    public static boolean validOptions(String[][] options, DocErrorReporter reporter) {
+        return Configuration.validOptions(options, reporter);
+    }
+
     /**
      * NOTE: Without this method present and returning LanguageVersion.JAVA_1_5,
      *       Javadoc will not process generics because it assumes LanguageVersion.JAVA_1_1
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.calrissian.restdoclet.util.PathTrie;
+import org.calrissian.restdoclet.util.StringPool;
+import org.calrissian.restdoclet.writer.DescriptorSink;
+import org.calrissian.restdoclet.writer.snapshot.SnapshotReader;
+
+import static org.calrissian.restdoclet.Configuration.getOptionLength;
+import static org.calrissian.restdoclet.util.CommonUtils.close;
+
+/**
+ * Writes the documentation from a snapshot made with {@code -o snapshot}, without running javadoc.  It takes the path
+ * of the snapshot followed by the same output options as the doclet, for example
+ * {@code java org.calrissian.restdoclet.SnapshotRenderer endpoints.snapshot -o swagger -url /api}.
+ */
+public class SnapshotRenderer {
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: SnapshotRenderer <snapshot> [options]");
+            System.exit(2);
+        }
+
+        try {
+            render(args[0], new Configuration(parseOptions(Arrays.copyOfRange(args, 1, args.length))));
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Writes every output format of the configuration from the snapshot.
+     */
+    public static void render(String snapshot, Configuration config) throws IOException {
+        InputStream in = null;
+        try {
+            in = new BufferedInputStream(new FileInputStream(snapshot));
+            SnapshotReader reader = new SnapshotReader(in);
+
+            DescriptorSink sink = RestDoclet.open(config);
+            try {
+                reader.read(sink);
+            } finally {
+                sink.close();
+            }
+        } finally {
+            close(in);
+            PathTrie.clear();
+            StringPool.clear();
+        }
+    }
+
+    /**
+     * Groups the arguments into options the way javadoc does, using the length of each option.
+     */
+    private static String[][] parseOptions(String[] args) {
+        List<String[]> options = new ArrayList<String[]>();
+        for (int i = 0; i < args.length; ) {
+            int length = getOptionLength(args[i]);
+            if (length == 0)
+                throw new IllegalArgumentException("Unknown option " + args[i]);
+            if (i + length > args.length)
+                throw new IllegalArgumentException("Missing value for option " + args[i]);
+
+            options.add(Arrays.copyOfRange(args, i, i + length));
+            i += length;
+        }
+
+        return options.toArray(new String[options.size()][]);
+    }
+}
@@ -17,29 +17,55 @@ package org.calrissian.restdoclet.collector;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 
 import com.sun.javadoc.ClassDoc;
 import com.sun.javadoc.MethodDoc;
 import com.sun.javadoc.ProgramElementDoc;
 import com.sun.javadoc.RootDoc;
+import com.sun.javadoc.Tag;
+import com.sun.javadoc.Type;
+import org.calrissian.restdoclet.Configuration;
 import org.calrissian.restdoclet.model.ClassDescriptor;
 import org.calrissian.restdoclet.model.Endpoint;
+import org.calrissian.restdoclet.model.EndpointCore;
+import org.calrissian.restdoclet.model.PathNode;
 import org.calrissian.restdoclet.model.PathVar;
 import org.calrissian.restdoclet.model.QueryParam;
 import org.calrissian.restdoclet.model.RequestBody;
+import org.calrissian.restdoclet.util.Budget;
+import org.calrissian.restdoclet.util.DocCache;
+import org.calrissian.restdoclet.util.Lazy;
+import org.calrissian.restdoclet.util.PathTrie;
+import org.calrissian.restdoclet.util.TypeRefs;
 
 import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static org.calrissian.restdoclet.util.CommonUtils.firstNonEmpty;
-import static org.calrissian.restdoclet.util.CommonUtils.fixPath;
 import static org.calrissian.restdoclet.util.CommonUtils.isEmpty;
+import static org.calrissian.restdoclet.util.DocUtils.getCommentText;
+import static org.calrissian.restdoclet.util.DocUtils.getMethods;
+import static org.calrissian.restdoclet.util.DocUtils.getOverriddenMethods;
+import static org.calrissian.restdoclet.util.DocUtils.getQualifiedName;
+import static org.calrissian.restdoclet.util.DocUtils.getReturnType;
+import static org.calrissian.restdoclet.util.DocUtils.getSuperclass;
+import static org.calrissian.restdoclet.util.GenericUtils.getTypeArguments;
+import static org.calrissian.restdoclet.util.GenericUtils.resolve;
 import static org.calrissian.restdoclet.util.TagUtils.CONTEXT_TAG;
 import static org.calrissian.restdoclet.util.TagUtils.IGNORE_TAG;
 import static org.calrissian.restdoclet.util.TagUtils.NAME_TAG;
-import static org.calrissian.restdoclet.util.TagUtils.firstSentence;
+import static org.calrissian.restdoclet.util.TagUtils.getTagIndex;
+import static org.calrissian.restdoclet.util.TagUtils.getTags;
 
 public abstract class AbstractCollector implements Collector {
 
+    private final DocCache<ClassDoc, Collection<EndpointTemplate>> templates =
+            DocCache.derived(this::createTemplates);
+    private Collection<String> boundary = Configuration.getDefaultSuperclassBoundary();
+
     protected abstract boolean shouldIgnoreClass(ClassDoc classDoc);
 
     protected abstract boolean shouldIgnoreMethod(MethodDoc methodDoc);
@@ -61,15 +87,25 @@ public abstract class AbstractCollector implements Collector {
      */
     @Override
     public Collection<ClassDescriptor> getDescriptors(RootDoc rootDoc) {
-        Collection<ClassDescriptor> classDescriptors = new ArrayList<ClassDescriptor>();
+        return new CollectorDispatcher(singletonList(this), new Configuration(rootDoc.options(), rootDoc)).getDescriptors(rootDoc);
+    }
 
-        //Loop through all of the classes and if it contains endpoints then add it to the set of descriptors.
-        for (ClassDoc classDoc : rootDoc.classes()) {
-            ClassDescriptor descriptor = getClassDescriptor(classDoc);
-            if (descriptor != null && !isEmpty(descriptor.getEndpoints())) { classDescriptors.add(descriptor); }
-        }
+    /**
+     * Applies the run configuration to this collector.
+     *
+     * @param config
+     */
+    public void configure(Configuration config) {
+        this.boundary = config.getSuperclassBoundary();
+    }
 
-        return classDescriptors;
+    /**
+     * Called with all the classes of a run before any of them are classified.  Collectors which need to know about
+     * other classes to decide how to handle a class can look at them here.
+     *
+     * @param classDocs
+     */
+    public void prepare(ClassDoc[] classDocs) {
     }
 
     /**
@@ -85,7 +121,19 @@ public abstract class AbstractCollector implements Collector {
     protected ClassDescriptor getClassDescriptor(ClassDoc classDoc) {
 
         //If the ignore tag is present or this type of class should be ignored then simply ignore this class
-        if (!isEmpty(classDoc.tags(IGNORE_TAG)) || shouldIgnoreClass(classDoc)) { return null; }
+        if (!isEmpty(getTags(classDoc, IGNORE_TAG)) || shouldIgnoreClass(classDoc)) { return null; }
+
+        return describeClass(classDoc);
+    }
+
+    /**
+     * Will generate the class descriptor for a class which is already known to be handled by this collector.
+     *
+     * @param classDoc
+     *
+     * @return
+     */
+    protected ClassDescriptor describeClass(ClassDoc classDoc) {
         String contextPath = getContextPath(classDoc);
         Collection<Endpoint> endpoints = getAllEndpoints(contextPath, classDoc, getEndpointMapping(classDoc));
 
@@ -99,12 +147,15 @@ public abstract class AbstractCollector implements Collector {
             (name == null ? "" : name),
             (contextPath == null ? "" : contextPath),
             endpoints,
-            (description == null ? "" : description)
+            (description == null ? "" : description),
+            getQualifiedName(classDoc)
         );
     }
 
     /**
-     * Retrieves all the end point provided in the specified class doc.
+     * Retrieves all the end point provided in the specified class doc.  Methods inherited from super classes are
+     * included until a class outside of the configured superclass boundary is reached.  Mappings declared on interfaces
+     * are picked up by the methods implementing them.
      *
      * @param contextPath
      * @param classDoc
@@ -115,17 +166,42 @@ public abstract class AbstractCollector implements Collector {
     protected Collection<Endpoint> getAllEndpoints(String contextPath, ClassDoc classDoc,
                                                    EndpointMapping classMapping) {
         Collection<Endpoint> endpoints = new ArrayList<Endpoint>();
-
-        for (MethodDoc method : classDoc.methods(false)) {
-            endpoints.addAll(getEndpoint(contextPath, classMapping, method));
+        for (EndpointTemplate template : getAllTemplates(classDoc)) {
+            Budget.check();
+            endpoints.addAll(bindTemplate(contextPath, classMapping, template));
         }
 
-        //Check super classes for inherited methods
-        if (classDoc.superclass() != null) {
-            endpoints.addAll(getAllEndpoints(contextPath, classDoc.superclass(), classMapping));
+        return endpoints;
+    }
+
+    /**
+     * Retrieves the templates for all the endpoint methods of the class, including the ones inherited from super
+     * classes up to the configured superclass boundary.  The type variables of generic super classes are substituted.
+     *
+     * @param classDoc
+     *
+     * @return
+     */
+    protected Collection<EndpointTemplate> getAllTemplates(ClassDoc classDoc) {
+        Collection<EndpointTemplate> classTemplates = new ArrayList<EndpointTemplate>();
+        Set<MethodDoc> overridden = new HashSet<MethodDoc>();
+
+        //Check super classes for inherited methods.  An overriding method inherits the mapping of the method it
+        //overrides, so the overridden method is not documented a second time.  The boundary only applies to the super
+        //classes, the methods of the class itself are always included.
+        for (ClassDoc current = classDoc; current != null && (current == classDoc || !isBoundary(current));
+             current = getSuperclass(current)) {
+            Budget.check();
+            Map<String, Type> typeArguments = getTypeArguments(classDoc, current);
+            for (EndpointTemplate template : templates.get(current)) {
+                if (overridden.contains(template.getMethod())) { continue; }
+
+                overridden.addAll(getOverriddenMethods(template.getMethod()));
+                classTemplates.add(resolveTemplate(template, typeArguments));
+            }
         }
 
-        return endpoints;
+        return classTemplates;
     }
 
     /**
@@ -141,43 +217,180 @@ public abstract class AbstractCollector implements Collector {
      * @return
      */
     protected Collection<Endpoint> getEndpoint(String contextPath, EndpointMapping classMapping, MethodDoc method) {
+        EndpointTemplate template = getEndpointTemplate(method);
+        if (template == null) { return emptyList(); }
+
+        return bindTemplate(contextPath, classMapping, template);
+    }
+
+    /**
+     * Resolves the class independent information for a single method.  Only the mapping is read right away, the
+     * parameters and comments of the method are read the first time they are needed.
+     *
+     * If any method contains the special javadoc tag {@link org.calrissian.restdoclet.util.TagUtils#IGNORE_TAG} it will
+     * be excluded.
+     *
+     * @param method
+     *
+     * @return the template, or null if the method is not an endpoint.
+     */
+    protected EndpointTemplate getEndpointTemplate(MethodDoc method) {
 
         //If the ignore tag is present then simply return nothing for this endpoint.
-        if (!isEmpty(method.tags(IGNORE_TAG)) || shouldIgnoreMethod(method)) { return emptyList(); }
+        if (!isEmpty(getTags(method, IGNORE_TAG)) || shouldIgnoreMethod(method)) { return null; }
+
+        return new EndpointTemplate(
+            method,
+            getEndpointMapping(method),
+            Lazy.of(() -> generatePathVars(method)),
+            Lazy.of(() -> generateQueryParams(method)),
+            Lazy.of(() -> generateRequestBody(method)),
+            Lazy.of(() -> getCommentText(method)),
+            Lazy.of(() -> getTagIndex(method).getFirstSentence()),
+            TypeRefs.of(getReturnType(method))
+        );
+    }
+
+    /**
+     * Resolves all the templates a single method provides.  By default this is the template from
+     * {@link #getEndpointTemplate(MethodDoc)}, collectors override it when a method can provide more than one endpoint.
+     *
+     * @param method
+     *
+     * @return
+     */
+    protected Collection<EndpointTemplate> getEndpointTemplates(MethodDoc method) {
+        EndpointTemplate template = getEndpointTemplate(method);
+        if (template == null) { return emptyList(); }
+
+        return singletonList(template);
+    }
+
+    /**
+     * Binds a template to the mapping and context path of the class it is being documented in.
+     *
+     * @param contextPath
+     * @param classMapping
+     * @param template
+     *
+     * @return
+     */
+    protected Collection<Endpoint> bindTemplate(String contextPath, EndpointMapping classMapping,
+                                                EndpointTemplate template) {
 
         Collection<Endpoint> endpoints = new ArrayList<Endpoint>();
-        EndpointMapping methodMapping = getEndpointMapping(method);
+        EndpointMapping methodMapping = template.getMethodMapping();
 
-        Collection<String> paths = resolvePaths(contextPath, classMapping, methodMapping);
+        Collection<PathNode> paths = resolvePathNodes(PathTrie.intern(contextPath), classMapping, methodMapping);
         Collection<String> httpMethods = resolveHttpMethods(classMapping, methodMapping);
         Collection<String> consumes = resolveConsumesInfo(classMapping, methodMapping);
         Collection<String> produces = resolvesProducesInfo(classMapping, methodMapping);
-        Collection<PathVar> pathVars = generatePathVars(method);
-        Collection<QueryParam> queryParams = generateQueryParams(method);
-        RequestBody requestBody = generateRequestBody(method);
+
+        //Every http method and path of the method shares the same core.
+        EndpointCore core = new EndpointCore(
+            template.getQueryParams(),
+            template.getPathVars(),
+            template.getRequestBody(),
+            consumes,
+            produces,
+            template.getCommentText(),
+            template.getFirstSentence(),
+            template.getType()
+        );
 
         for (String httpMethod : httpMethods) {
-            for (String path : paths) {
-                endpoints.add(
-                    new Endpoint(
-                        path,
-                        httpMethod,
-                        queryParams,
-                        pathVars,
-                        requestBody,
-                        consumes,
-                        produces,
-                        method.commentText(),
-                        firstSentence(method),
-                        method.returnType()
-                    )
-                );
+            for (PathNode path : paths) {
+                endpoints.add(new Endpoint(path, httpMethod, core));
             }
         }
 
         return endpoints;
     }
 
+    /**
+     * Substitutes the type variables of a generic superclass in the types of an inherited template.
+     *
+     * @param template
+     * @param typeArguments the bindings from {@link org.calrissian.restdoclet.util.GenericUtils#getTypeArguments}
+     *
+     * @return
+     */
+    protected EndpointTemplate resolveTemplate(EndpointTemplate template, Map<String, Type> typeArguments) {
+        if (typeArguments.isEmpty()) { return template; }
+
+        return new EndpointTemplate(
+            template.getMethod(),
+            template.getMethodMapping(),
+            template.getPathVars().map(pathVars -> resolvePathVars(pathVars, typeArguments)),
+            template.getQueryParams().map(queryParams -> resolveQueryParams(queryParams, typeArguments)),
+            template.getRequestBody().map(requestBody -> resolveRequestBody(requestBody, typeArguments)),
+            template.getCommentText(),
+            template.getFirstSentence(),
+            resolve(template.getType(), typeArguments)
+        );
+    }
+
+    private static Collection<PathVar> resolvePathVars(Collection<PathVar> pathVars, Map<String, Type> typeArguments) {
+        Collection<PathVar> resolved = new ArrayList<PathVar>();
+        for (PathVar pathVar : pathVars) {
+            resolved.add(new PathVar(pathVar.getName(), pathVar.getDescription(),
+                    resolve(pathVar.getType(), typeArguments)));
+        }
+
+        return resolved;
+    }
+
+    private static Collection<QueryParam> resolveQueryParams(Collection<QueryParam> queryParams,
+                                                             Map<String, Type> typeArguments) {
+        Collection<QueryParam> resolved = new ArrayList<QueryParam>();
+        for (QueryParam queryParam : queryParams) {
+            resolved.add(new QueryParam(queryParam.getName(), queryParam.isRequired(), queryParam.getDescription(),
+                    resolve(queryParam.getType(), typeArguments)));
+        }
+
+        return resolved;
+    }
+
+    private static RequestBody resolveRequestBody(RequestBody requestBody, Map<String, Type> typeArguments) {
+        if (requestBody == null) { return null; }
+
+        return new RequestBody(requestBody.getName(), requestBody.getDescription(),
+                resolve(requestBody.getType(), typeArguments));
+    }
+
+    /**
+     * Will check if the class is outside of the classes which should be searched for inherited endpoints.  The
+     * boundary is a list of package or class name prefixes, see {@link Configuration#getSuperclassBoundary()}.
+     *
+     * @param classDoc
+     *
+     * @return
+     */
+    protected boolean isBoundary(ClassDoc classDoc) {
+        String name = getQualifiedName(classDoc);
+        for (String prefix : boundary) {
+            if (name.startsWith(prefix)) { return true; }
+        }
+
+        return false;
+    }
+
+    /**
+     * Resolves the templates for all the endpoint methods declared directly in the class.
+     *
+     * @param classDoc
+     *
+     * @return
+     */
+    private Collection<EndpointTemplate> createTemplates(ClassDoc classDoc) {
+        Collection<EndpointTemplate> classTemplates = new ArrayList<EndpointTemplate>();
+        for (MethodDoc method : getMethods(classDoc)) {
+            classTemplates.addAll(getEndpointTemplates(method));
+        }
+
+        return classTemplates;
+    }
+
     /**
      * Will get the initial context path to use for all rest endpoint.
      *
@@ -188,7 +401,8 @@ public abstract class AbstractCollector implements Collector {
      * @return
      */
     protected String getContextPath(ClassDoc classDoc) {
-        if (!isEmpty(classDoc.tags(CONTEXT_TAG))) { return classDoc.tags(CONTEXT_TAG)[0].text(); }
+        Tag[] tags = getTags(classDoc, CONTEXT_TAG);
+        if (!isEmpty(tags)) { return DocCache.read(tags[0]::text); }
 
         return "";
     }
@@ -203,9 +417,10 @@ public abstract class AbstractCollector implements Collector {
      * @return
      */
     protected String getClassName(ClassDoc classDoc) {
-        if (!isEmpty(classDoc.tags(NAME_TAG))) { return classDoc.tags(NAME_TAG)[0].text(); }
+        Tag[] tags = getTags(classDoc, NAME_TAG);
+        if (!isEmpty(tags)) { return DocCache.read(tags[0]::text); }
 
-        return classDoc.typeName();
+        return DocCache.read(classDoc::typeName);
     }
 
     /**
@@ -216,7 +431,7 @@ public abstract class AbstractCollector implements Collector {
      * @return
      */
     protected String getClassDescription(ClassDoc classDoc) {
-        return classDoc.commentText();
+        return getCommentText(classDoc);
     }
 
     /**
@@ -233,24 +448,45 @@ public abstract class AbstractCollector implements Collector {
     protected Collection<String> resolvePaths(String contextPath, EndpointMapping classMapping,
                                               EndpointMapping methodMapping) {
 
-        contextPath = (contextPath == null ? "" : contextPath);
+        Collection<String> paths = new ArrayList<String>();
+        for (PathNode node : resolvePathNodes(PathTrie.intern(contextPath), classMapping, methodMapping)) {
+            paths.add(node.getPath());
+        }
+
+        return paths;
+    }
+
+    /**
+     * Same as {@link #resolvePaths(String, EndpointMapping, EndpointMapping)}, but resolves each path as a node in the
+     * run's {@link PathTrie}.  The context node is shared by every path, so only the class and method segments are
+     * walked for each combination.
+     *
+     * @param contextNode
+     * @param classMapping
+     * @param methodMapping
+     *
+     * @return
+     */
+    protected Collection<PathNode> resolvePathNodes(PathNode contextNode, EndpointMapping classMapping,
+                                                    EndpointMapping methodMapping) {
 
         //Build all the paths based on the class level, plus the method extensions.
-        LinkedHashSet<String> paths = new LinkedHashSet<String>();
+        LinkedHashSet<PathNode> paths = new LinkedHashSet<PathNode>();
 
         if (isEmpty(classMapping.getPaths())) {
 
-            for (String path : methodMapping.getPaths()) { paths.add(fixPath(fixPath(contextPath) + fixPath(path))); }
+            for (String path : methodMapping.getPaths()) { paths.add(contextNode.resolve(path)); }
 
         } else if (isEmpty(methodMapping.getPaths())) {
 
-            for (String path : classMapping.getPaths()) { paths.add(fixPath(fixPath(contextPath) + fixPath(path))); }
+            for (String path : classMapping.getPaths()) { paths.add(contextNode.resolve(path)); }
 
         } else {
 
             for (String defaultPath : classMapping.getPaths()) {
+                PathNode classNode = contextNode.resolve(defaultPath);
                 for (String path : methodMapping.getPaths()) {
-                    paths.add(fixPath(fixPath(contextPath) + fixPath(defaultPath) + fixPath(path)));
+                    paths.add(classNode.resolve(path));
                 }
             }
 
@@ -0,0 +1,462 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.collector;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.sun.javadoc.ClassDoc;
+import com.sun.javadoc.RootDoc;
+import org.calrissian.restdoclet.Configuration;
+import org.calrissian.restdoclet.model.ClassDescriptor;
+import org.calrissian.restdoclet.util.Budget;
+import org.calrissian.restdoclet.util.BudgetExceededException;
+import org.calrissian.restdoclet.util.DocCache;
+import org.calrissian.restdoclet.util.Fingerprints;
+import org.calrissian.restdoclet.util.NameFilter;
+import org.calrissian.restdoclet.writer.DescriptorSink;
+
+import static org.calrissian.restdoclet.util.CommonUtils.isEmpty;
+import static org.calrissian.restdoclet.util.DocUtils.getInterfaces;
+import static org.calrissian.restdoclet.util.DocUtils.getQualifiedName;
+import static org.calrissian.restdoclet.util.DocUtils.getSuperclass;
+import static org.calrissian.restdoclet.util.TagUtils.IGNORE_TAG;
+import static org.calrissian.restdoclet.util.TagUtils.getTags;
+
+/**
+ * Makes a single pass over the classes provided by javadoc.  Each class is classified once against all the collectors
+ * and is only handed to the collectors which apply to it.  The javadoc information read while classifying is memoized,
+ * so the collectors reuse it instead of reading the class again.
+ *
+ * When more than one thread is requested the class descriptors are built on a fork join pool.  Access to the javadoc
+ * model is serialized through {@link org.calrissian.restdoclet.util.DocCache}, so only the first read of each element
+ * is done under a lock.
+ *
+ * Classes rejected by the include and exclude options are dropped by name before anything else is read from them.
+ *
+ * Each class is described within the time and depth budget of the configuration.  A class which exceeds it is skipped
+ * with a warning, so a single pathological class does not stall or fail the whole run.
+ *
+ * When a cache directory is configured, the descriptor of a class is kept between runs and reused for as long as the
+ * fingerprint of the class is unchanged, see {@link org.calrissian.restdoclet.util.Fingerprints}.
+ *
+ * The descriptors are streamed to a sink as they are built, in the order of the classes and then of the collectors,
+ * regardless of the number of threads.  When more than one collector handles a class, the endpoints they both found
+ * for it are merged by an {@link EndpointRegistry}.
+ */
+public class CollectorDispatcher implements Collector {
+
+    /**
+     * Number of classes below which a describe task is no longer split.
+     */
+    private static final int SPLIT_THRESHOLD = 4;
+
+    private final List<AbstractCollector> collectors;
+    private final int threads;
+    private final long timeBudget;
+    private final int depthBudget;
+    private final NameFilter nameFilter;
+    private final String cacheDirectory;
+    private final String fingerprintSalt;
+
+    public CollectorDispatcher(Collection<? extends AbstractCollector> collectors, Configuration config) {
+        this.collectors = new ArrayList<AbstractCollector>(collectors);
+        this.threads = config.getThreads();
+        this.timeBudget = config.getTimeBudget();
+        this.depthBudget = config.getDepthBudget();
+        this.nameFilter = NameFilter.compile(config.getIncludes(), config.getExcludes());
+        this.cacheDirectory = config.getCacheDirectory();
+        this.fingerprintSalt = String.valueOf(config.getSuperclassBoundary());
+
+        for (AbstractCollector collector : this.collectors)
+            collector.configure(config);
+    }
+
+    @Override
+    public Collection<ClassDescriptor> getDescriptors(RootDoc rootDoc) {
+        final Collection<ClassDescriptor> classDescriptors = new ArrayList<ClassDescriptor>();
+        try {
+            collect(rootDoc, new DescriptorSink() {
+                @Override
+                public void accept(ClassDescriptor classDescriptor) {
+                    classDescriptors.add(classDescriptor);
+                }
+
+                @Override
+                public void close() {
+                }
+            });
+        } catch (IOException e) {
+            //Adding to a list does not fail.
+            throw new UncheckedIOException(e);
+        }
+
+        return classDescriptors;
+    }
+
+    /**
+     * Describes the classes and hands each descriptor to the sink as soon as it and every descriptor before it are
+     * built, so the descriptors are not all held at once.  The sink is called from the threads describing the
+     * classes, one descriptor at a time, and is not closed.
+     *
+     * @param rootDoc
+     * @param sink
+     *
+     * @return the number of descriptors handed to the sink
+     */
+    public int collect(RootDoc rootDoc, DescriptorSink sink) throws IOException {
+        List<Unit> units = classify(rootDoc.classes());
+        Emitter emitter = new Emitter(units, sink);
+        DescriptorCache cache = (cacheDirectory == null ? null : DescriptorCache.open(cacheDirectory));
+
+        if (threads > 1 && units.size() > SPLIT_THRESHOLD) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                pool.invoke(new DescribeTask(rootDoc, cache, units, emitter, 0, units.size()));
+            } finally {
+                pool.shutdown();
+            }
+        } else {
+            new DescribeTask(rootDoc, cache, units, emitter, 0, units.size()).compute();
+        }
+
+        emitter.rethrow();
+
+        if (cache != null)
+            saveCache(rootDoc, cache, units.size());
+
+        return emitter.getCount();
+    }
+
+    /**
+     * The end of the units of the class of the unit at the index.  The units of a class are next to each other.
+     */
+    private static int endOfClass(List<Unit> units, int from) {
+        ClassDoc classDoc = units.get(from).classDoc;
+        int to = from + 1;
+        while (to < units.size() && units.get(to).classDoc == classDoc)
+            to++;
+
+        return to;
+    }
+
+    /**
+     * Merges the endpoints which several collectors found for the same class, replacing the descriptors in place.
+     */
+    private static void merge(ClassDescriptor[] descriptors, int from, int to) {
+        EndpointRegistry registry = new EndpointRegistry();
+        int[] indexes = new int[to - from];
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (descriptors[i] != null && !isEmpty(descriptors[i].getEndpoints())) {
+                registry.add(descriptors[i]);
+                indexes[count++] = i;
+            }
+        }
+
+        for (int i = 0; i < count; i++)
+            descriptors[indexes[i]] = registry.getDescriptor(i);
+    }
+
+    private static void saveCache(RootDoc rootDoc, DescriptorCache cache, int total) {
+        try {
+            cache.save();
+            rootDoc.printNotice("Reused " + cache.getReused() + " of " + total + " class descriptors from the cache");
+        } catch (IOException e) {
+            rootDoc.printWarning("Unable to write the descriptor cache: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Pairs every class with each of the collectors which apply to it.
+     */
+    private List<Unit> classify(ClassDoc[] classDocs) {
+        classDocs = filter(classDocs);
+
+        for (AbstractCollector collector : collectors)
+            collector.prepare(classDocs);
+
+        //Interfaces are classified once it is known which of them are implemented by a class which is documented.
+        List<List<Unit>> classUnits = new ArrayList<List<Unit>>(classDocs.length);
+        List<ClassDoc> dispatched = new ArrayList<ClassDoc>();
+        for (ClassDoc classDoc : classDocs) {
+            List<Unit> found = Collections.emptyList();
+            if (!classDoc.isInterface() && !isIgnored(classDoc)) {
+                found = match(classDoc);
+                if (!found.isEmpty())
+                    dispatched.add(classDoc);
+            }
+            classUnits.add(found);
+        }
+
+        //The endpoints of an interface are documented by the classes implementing it, unless none of them is.
+        Set<ClassDoc> implemented = getImplementedInterfaces(dispatched);
+        for (int i = 0; i < classDocs.length; i++) {
+            ClassDoc classDoc = classDocs[i];
+            if (classDoc.isInterface() && !isIgnored(classDoc) && !implemented.contains(classDoc))
+                classUnits.set(i, match(classDoc));
+        }
+
+        List<Unit> units = new ArrayList<Unit>();
+        for (List<Unit> found : classUnits)
+            units.addAll(found);
+
+        return units;
+    }
+
+    /**
+     * The ignore tag applies to every framework, so there is no need to classify a class which has it.
+     */
+    private static boolean isIgnored(ClassDoc classDoc) {
+        return !isEmpty(getTags(classDoc, IGNORE_TAG));
+    }
+
+    /**
+     * Pairs the class with each of the collectors which apply to it.
+     */
+    private List<Unit> match(ClassDoc classDoc) {
+        List<Unit> units = new ArrayList<Unit>(1);
+        for (int i = 0; i < collectors.size(); i++) {
+            if (!collectors.get(i).shouldIgnoreClass(classDoc))
+                units.add(new Unit(i, classDoc));
+        }
+
+        return units;
+    }
+
+    /**
+     * Removes the classes rejected by the include and exclude patterns.  Only the name of each class is used, so none
+     * of the rejected classes are read.
+     */
+    private ClassDoc[] filter(ClassDoc[] classDocs) {
+        if (nameFilter.isEmpty())
+            return classDocs;
+
+        List<ClassDoc> accepted = new ArrayList<ClassDoc>(classDocs.length);
+        for (ClassDoc classDoc : classDocs)
+            if (nameFilter.accepts(getQualifiedName(classDoc)))
+                accepted.add(classDoc);
+
+        return accepted.toArray(new ClassDoc[accepted.size()]);
+    }
+
+    /**
+     * Finds every interface which is implemented, directly or not, by one of the classes.
+     */
+    private static Set<ClassDoc> getImplementedInterfaces(Collection<ClassDoc> classDocs) {
+        Set<ClassDoc> implemented = new HashSet<ClassDoc>();
+        Deque<ClassDoc> queue = new ArrayDeque<ClassDoc>();
+        for (ClassDoc classDoc : classDocs) {
+            for (ClassDoc current = classDoc; current != null; current = getSuperclass(current))
+                Collections.addAll(queue, getInterfaces(current));
+
+            while (!queue.isEmpty()) {
+                ClassDoc iface = queue.poll();
+                if (implemented.add(iface))
+                    Collections.addAll(queue, getInterfaces(iface));
+            }
+        }
+
+        return implemented;
+    }
+
+    private static class Unit {
+        private final int collectorIndex;
+        private final ClassDoc classDoc;
+
+        private Unit(int collectorIndex, ClassDoc classDoc) {
+            this.collectorIndex = collectorIndex;
+            this.classDoc = classDoc;
+        }
+    }
+
+    /**
+     * Hands the descriptors to the sink in the order of their units, regardless of the order they are built in.  Once
+     * every unit of a class is described the descriptors of the class are merged and handed over, as long as the
+     * classes before it have been handed over too.  Descriptors which are built ahead of that wait here.
+     */
+    private static class Emitter {
+        private final List<Unit> units;
+        private final DescriptorSink sink;
+        private final ClassDescriptor[] descriptors;
+        private final boolean[] described;
+        private int next = 0;
+        private int count = 0;
+        private volatile IOException failure;
+
+        private Emitter(List<Unit> units, DescriptorSink sink) {
+            this.units = units;
+            this.sink = sink;
+            this.descriptors = new ClassDescriptor[units.size()];
+            this.described = new boolean[units.size()];
+        }
+
+        private synchronized void described(int index, ClassDescriptor descriptor) {
+            descriptors[index] = descriptor;
+            described[index] = true;
+
+            while (next < units.size()) {
+                int end = endOfClass(units, next);
+                for (int i = next; i < end; i++)
+                    if (!described[i])
+                        return;
+
+                //The same endpoint can be found by more than one collector, so merge the descriptors of the class.
+                if (end - next > 1)
+                    merge(descriptors, next, end);
+
+                for (int i = next; i < end; i++) {
+                    ClassDescriptor classDescriptor = descriptors[i];
+                    descriptors[i] = null;
+                    if (classDescriptor != null && !isEmpty(classDescriptor.getEndpoints()) && failure == null)
+                        emit(classDescriptor);
+                }
+                next = end;
+            }
+        }
+
+        private void emit(ClassDescriptor classDescriptor) {
+            try {
+                sink.accept(classDescriptor);
+                count++;
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+
+        /**
+         * Whether the sink has failed, after which there is no use in describing any more classes.
+         */
+        private boolean isFailed() {
+            return failure != null;
+        }
+
+        private void rethrow() throws IOException {
+            if (failure != null)
+                throw failure;
+        }
+
+        private synchronized int getCount() {
+            return count;
+        }
+    }
+
+    /**
+     * Describes a range of units, splitting the range in half until it is small enough to be done directly.  Each
+     * result is handed to the emitter with the index of its unit, which keeps the output order independent of the
+     * scheduling.
+     */
+    private class DescribeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final RootDoc rootDoc;
+        private final DescriptorCache cache;
+        private final List<Unit> units;
+        private final Emitter emitter;
+        private final int from;
+        private final int to;
+
+        private DescribeTask(RootDoc rootDoc, DescriptorCache cache, List<Unit> units, Emitter emitter,
+                             int from, int to) {
+            this.rootDoc = rootDoc;
+            this.cache = cache;
+            this.units = units;
+            this.emitter = emitter;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD || threads <= 1) {
+                for (int i = from; i < to && !emitter.isFailed(); i++)
+                    emitter.described(i, describe(units.get(i)));
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(
+                    new DescribeTask(rootDoc, cache, units, emitter, from, middle),
+                    new DescribeTask(rootDoc, cache, units, emitter, middle, to)
+            );
+        }
+
+        /**
+         * Describes a single unit within its budget.  If the budget is exceeded, or the class is nested too deeply for
+         * the stack, the class is skipped with a warning.
+         */
+        private ClassDescriptor describe(Unit unit) {
+            final ClassDoc classDoc = unit.classDoc;
+            String className = getQualifiedName(classDoc);
+            Budget.start("Class " + className, timeBudget, depthBudget);
+            try {
+                AbstractCollector collector = collectors.get(unit.collectorIndex);
+                if (cache == null)
+                    return resolve(collector.describeClass(classDoc));
+
+                String key = collector.getClass().getName() + ":" + className;
+                String fingerprint = Fingerprints.of(classDoc, key + "|" + fingerprintSalt);
+                ClassDescriptor descriptor = cache.get(key, fingerprint);
+                if (descriptor == DescriptorCache.NONE)
+                    return null;
+
+                if (descriptor == null) {
+                    descriptor = resolve(collector.describeClass(classDoc));
+                    cache.put(key, fingerprint, descriptor);
+                }
+
+                return descriptor;
+            } catch (BudgetExceededException e) {
+                warn(classDoc, e.getMessage());
+            } catch (StackOverflowError e) {
+                warn(classDoc, "Class " + className + " is nested too deeply");
+            } finally {
+                Budget.end();
+            }
+
+            return null;
+        }
+
+        /**
+         * Reads the lazy parts of the descriptor while the budget of its class is still running, so a deep type under
+         * a parameter is bounded like the rest of the class.
+         */
+        private ClassDescriptor resolve(ClassDescriptor descriptor) {
+            if (descriptor != null)
+                descriptor.resolve();
+
+            return descriptor;
+        }
+
+        private void warn(final ClassDoc classDoc, final String message) {
+            //The reporter is part of the javadoc model, so it is used under the javadoc lock.
+            DocCache.read(() -> {
+                rootDoc.printWarning(classDoc.position(), message + ", skipping it");
+                return null;
+            });
+        }
+    }
+}
@@ -0,0 +1,31 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.collector;
+
+/**
+ * Creates the collector of a framework.  Providers are found with {@link java.util.ServiceLoader} and should be cheap
+ * to load, since every provider is loaded to find the ones selected by name.  Only the selected collectors are created.
+ */
+public interface CollectorProvider {
+
+    /**
+     * The name used to select the collector with the {@code -collectors} option.
+     */
+    public String getName();
+
+    public AbstractCollector create();
+
+}
@@ -0,0 +1,192 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.collector;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.calrissian.restdoclet.model.ClassDescriptor;
+import org.calrissian.restdoclet.writer.snapshot.SnapshotReader;
+import org.calrissian.restdoclet.writer.snapshot.SnapshotWriter;
+
+import static org.calrissian.restdoclet.util.CommonUtils.close;
+
+/**
+ * Class descriptors kept from earlier runs, keyed by collector and class and only reused while the fingerprint of the
+ * class, see {@link org.calrissian.restdoclet.util.Fingerprints}, is unchanged.
+ *
+ * The cache file is read when the run starts and replaced when it ends, keeping only the entries used by the run, so
+ * classes which were removed do not linger.  Descriptors are stored in the snapshot format.  A cache file which can not
+ * be read is ignored, and every class is described again.
+ *
+ * Classes which have no descriptor are cached too, as an entry without one, so they are not described again either.
+ */
+class DescriptorCache {
+    private static final String CACHE_FILE = "descriptors.cache";
+    private static final int MAGIC = 0x52444343;
+    private static final int VERSION = 1;
+    private static final byte[] NO_DESCRIPTOR = new byte[0];
+
+    /**
+     * Returned by {@link #get} for a class which is cached as having no descriptor.
+     */
+    static final ClassDescriptor NONE = new ClassDescriptor(null, null, null, null);
+
+    private final File directory;
+    private final Map<String, Entry> previous;
+    private final Map<String, Entry> current = new ConcurrentHashMap<String, Entry>();
+    private final AtomicInteger reused = new AtomicInteger();
+
+    private DescriptorCache(File directory, Map<String, Entry> previous) {
+        this.directory = directory;
+        this.previous = previous;
+    }
+
+    /**
+     * Reads the cache kept in the directory.  The cache is empty if the directory has none yet, or it can not be read.
+     */
+    static DescriptorCache open(String directory) {
+        File dir = new File(directory);
+        Map<String, Entry> entries = new HashMap<String, Entry>();
+        try {
+            read(new File(dir, CACHE_FILE), entries);
+        } catch (IOException | RuntimeException e) {
+            entries.clear();
+        }
+
+        return new DescriptorCache(dir, entries);
+    }
+
+    /**
+     * The cached descriptor of the class, {@link #NONE} if the class is cached without one, or null if there is no
+     * entry with the same fingerprint.
+     */
+    ClassDescriptor get(String key, String fingerprint) {
+        Entry entry = previous.get(key);
+        if (entry == null || !entry.fingerprint.equals(fingerprint))
+            return null;
+
+        try {
+            ClassDescriptor descriptor =
+                    (entry.descriptor.length == 0 ? NONE : SnapshotReader.decode(entry.descriptor));
+            current.put(key, entry);
+            reused.incrementAndGet();
+            return descriptor;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Caches the descriptor of the class, which is null if the class has none.  A descriptor which can not be encoded
+     * is simply not cached.
+     */
+    void put(String key, String fingerprint, ClassDescriptor descriptor) {
+        try {
+            byte[] encoded = (descriptor == null ? NO_DESCRIPTOR : SnapshotWriter.encode(descriptor));
+            current.put(key, new Entry(fingerprint, encoded));
+        } catch (IOException e) {
+            current.remove(key);
+        }
+    }
+
+    /**
+     * Number of descriptors which were reused from the cache.
+     */
+    int getReused() {
+        return reused.get();
+    }
+
+    /**
+     * Replaces the cache file with the entries of this run.  The file is written next to the old one first, so an
+     * interrupted run leaves the old cache intact.
+     */
+    void save() throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs())
+            throw new IOException("Unable to create directory: " + directory);
+
+        File file = new File(directory, CACHE_FILE);
+        File temp = new File(directory, CACHE_FILE + ".tmp");
+
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+
+            //Sorted, so the same descriptors always give the same file.
+            Map<String, Entry> sorted = new TreeMap<String, Entry>(current);
+            out.writeInt(sorted.size());
+            for (Map.Entry<String, Entry> entry : sorted.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeUTF(entry.getValue().fingerprint);
+                out.writeInt(entry.getValue().descriptor.length);
+                out.write(entry.getValue().descriptor);
+            }
+        } finally {
+            close(out);
+        }
+
+        if (file.exists() && !file.delete())
+            throw new IOException("Unable to replace " + file);
+        if (!temp.renameTo(file))
+            throw new IOException("Unable to replace " + file);
+    }
+
+    private static void read(File file, Map<String, Entry> entries) throws IOException {
+        if (!file.isFile())
+            return;
+
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+                return;
+
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String key = in.readUTF();
+                String fingerprint = in.readUTF();
+                byte[] descriptor = new byte[in.readInt()];
+                in.readFully(descriptor);
+                entries.put(key, new Entry(fingerprint, descriptor));
+            }
+        } finally {
+            close(in);
+        }
+    }
+
+    private static class Entry {
+        private final String fingerprint;
+        private final byte[] descriptor;
+
+        private Entry(String fingerprint, byte[] descriptor) {
+            this.fingerprint = fingerprint;
+            this.descriptor = descriptor;
+        }
+    }
+}
@@ -15,9 +15,10 @@
  *******************************************************************************/
 package org.calrissian.restdoclet.collector;
 
-
 import java.util.Collection;
 
+import static org.calrissian.restdoclet.util.StringPool.internAll;
+
 public class EndpointMapping {
     private final Collection<String> paths;
     private final Collection<String> httpMethods;
@@ -30,10 +31,10 @@ public class EndpointMapping {
             Collection<String> consumes,
             Collection<String> produces) {
 
-        this.paths = paths;
-        this.httpMethods = httpMethods;
-        this.consumes = consumes;
-        this.produces = produces;
+        this.paths = internAll(paths);
+        this.httpMethods = internAll(httpMethods);
+        this.consumes = internAll(consumes);
+        this.produces = internAll(produces);
     }
 
     public Collection<String> getPaths() {
@@ -0,0 +1,208 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.collector;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.calrissian.restdoclet.model.ClassDescriptor;
+import org.calrissian.restdoclet.model.Endpoint;
+import org.calrissian.restdoclet.model.EndpointCore;
+import org.calrissian.restdoclet.model.PathNode;
+import org.calrissian.restdoclet.model.PathVar;
+import org.calrissian.restdoclet.model.QueryParam;
+import org.calrissian.restdoclet.util.Lazy;
+
+import static org.calrissian.restdoclet.util.CommonUtils.isEmpty;
+
+/**
+ * Collects the descriptors which the collectors built for a single class, and merges the endpoints which describe the
+ * same http method and path.  This happens when a class is handled by more than one collector, for example a class
+ * with both Spring and JAX-RS annotations.  Unrelated classes may map the same route, so a registry should only be
+ * given the descriptors of one class.
+ *
+ * A merged endpoint stays with the first descriptor which provided it.  Descriptors which are left without any
+ * endpoints are dropped.
+ */
+public class EndpointRegistry {
+
+    private final List<ClassDescriptor> descriptors = new ArrayList<ClassDescriptor>();
+    private final List<List<Endpoint>> endpoints = new ArrayList<List<Endpoint>>();
+    private final Map<Key, int[]> locations = new HashMap<Key, int[]>();
+    private final BitSet changed = new BitSet();
+
+    //Merged cores by the pair of cores they were merged from, so the endpoints of a method which are all merged with
+    //the endpoints of the same other method keep sharing a single core.
+    private final Map<EndpointCore, Map<EndpointCore, EndpointCore>> mergedCores =
+            new IdentityHashMap<EndpointCore, Map<EndpointCore, EndpointCore>>();
+
+    public void add(ClassDescriptor descriptor) {
+        int index = descriptors.size();
+        List<Endpoint> retained = new ArrayList<Endpoint>(descriptor.getEndpoints().size());
+        descriptors.add(descriptor);
+        endpoints.add(retained);
+
+        for (Endpoint endpoint : descriptor.getEndpoints()) {
+            Key key = new Key(endpoint.getHttpMethod(), endpoint.getPathNode());
+            int[] location = locations.get(key);
+            if (location == null) {
+                locations.put(key, new int[] {index, retained.size()});
+                retained.add(endpoint);
+            } else {
+                List<Endpoint> existing = endpoints.get(location[0]);
+                Endpoint first = existing.get(location[1]);
+                existing.set(location[1], new Endpoint(first.getPathNode(), first.getHttpMethod(),
+                        merge(first.getCore(), endpoint.getCore())));
+                changed.set(location[0]);
+                changed.set(index);
+            }
+        }
+    }
+
+    /**
+     * The registered descriptors, in the order they were added, with the merged endpoints.
+     */
+    public Collection<ClassDescriptor> getDescriptors() {
+        Collection<ClassDescriptor> result = new ArrayList<ClassDescriptor>(descriptors.size());
+        for (int i = 0; i < descriptors.size(); i++) {
+            ClassDescriptor descriptor = getDescriptor(i);
+            if (descriptor != null)
+                result.add(descriptor);
+        }
+
+        return result;
+    }
+
+    /**
+     * The descriptor added at the index, with the merged endpoints, or null if all of its endpoints were merged into
+     * the ones of an earlier descriptor.
+     */
+    public ClassDescriptor getDescriptor(int index) {
+        ClassDescriptor descriptor = descriptors.get(index);
+        List<Endpoint> retained = endpoints.get(index);
+        if (isEmpty(retained))
+            return null;
+
+        if (!changed.get(index))
+            return descriptor;
+
+        return new ClassDescriptor(
+                descriptor.getName(),
+                descriptor.getContextPath(),
+                retained,
+                descriptor.getDescription(),
+                descriptor.getQualifiedName()
+        );
+    }
+
+    /**
+     * Combines two descriptions of the same endpoint.  Parameters are combined by name, and for everything else the
+     * first endpoint wins unless it has no value.  The parameters and descriptions are only combined when they are
+     * read.
+     */
+    private EndpointCore merge(final EndpointCore first, final EndpointCore second) {
+        Map<EndpointCore, EndpointCore> merged = mergedCores.get(first);
+        if (merged == null) {
+            merged = new IdentityHashMap<EndpointCore, EndpointCore>();
+            mergedCores.put(first, merged);
+        }
+
+        EndpointCore core = merged.get(second);
+        if (core == null) {
+            core = combine(first, second);
+            merged.put(second, core);
+        }
+
+        return core;
+    }
+
+    private static EndpointCore combine(final EndpointCore first, final EndpointCore second) {
+        Collection<String> consumes = new LinkedHashSet<String>(first.getConsumes());
+        consumes.addAll(second.getConsumes());
+        Collection<String> produces = new LinkedHashSet<String>(first.getProduces());
+        produces.addAll(second.getProduces());
+
+        return new EndpointCore(
+                Lazy.of(() -> mergeQueryParams(first.getQueryParams(), second.getQueryParams())),
+                Lazy.of(() -> mergePathVars(first.getPathVars(), second.getPathVars())),
+                Lazy.of(() -> (first.getRequestBody() != null ? first.getRequestBody() : second.getRequestBody())),
+                consumes,
+                produces,
+                Lazy.of(() -> (isEmpty(first.getShortDescription()) ? second.getShortDescription() :
+                        first.getShortDescription())),
+                Lazy.of(() -> (isEmpty(first.getDescription()) ? second.getDescription() : first.getDescription())),
+                (first.getType() != null ? first.getType() : second.getType())
+        );
+    }
+
+    private static Collection<QueryParam> mergeQueryParams(Collection<QueryParam> first,
+                                                           Collection<QueryParam> second) {
+        Map<String, QueryParam> queryParams = new LinkedHashMap<String, QueryParam>();
+        for (QueryParam queryParam : first)
+            queryParams.put(queryParam.getName(), queryParam);
+        for (QueryParam queryParam : second)
+            if (!queryParams.containsKey(queryParam.getName()))
+                queryParams.put(queryParam.getName(), queryParam);
+
+        return queryParams.values();
+    }
+
+    private static Collection<PathVar> mergePathVars(Collection<PathVar> first, Collection<PathVar> second) {
+        Map<String, PathVar> pathVars = new LinkedHashMap<String, PathVar>();
+        for (PathVar pathVar : first)
+            pathVars.put(pathVar.getName(), pathVar);
+        for (PathVar pathVar : second)
+            if (!pathVars.containsKey(pathVar.getName()))
+                pathVars.put(pathVar.getName(), pathVar);
+
+        return pathVars.values();
+    }
+
+    /**
+     * The http method and path of an endpoint.  Paths are interned in the run's path trie, so they are compared by
+     * identity.
+     */
+    private static class Key {
+        private final String httpMethod;
+        private final PathNode path;
+
+        private Key(String httpMethod, PathNode path) {
+            this.httpMethod = httpMethod;
+            this.path = path;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+
+            Key other = (Key) o;
+            return path == other.path && httpMethod.equals(other.httpMethod);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(path) + httpMethod.hashCode();
+        }
+    }
+}
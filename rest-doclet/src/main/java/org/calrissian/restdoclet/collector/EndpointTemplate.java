@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.collector;
+
+import java.util.Collection;
+
+import com.sun.javadoc.MethodDoc;
+import org.calrissian.restdoclet.model.PathVar;
+import org.calrissian.restdoclet.model.QueryParam;
+import org.calrissian.restdoclet.model.RequestBody;
+import org.calrissian.restdoclet.model.TypeRef;
+import org.calrissian.restdoclet.util.Lazy;
+
+/**
+ * Everything about an endpoint method which does not depend on the class it is documented in.  Templates are resolved
+ * once per declaring class and then bound to the class mapping and context path of every class which inherits them.
+ *
+ * The mapping is needed to find the endpoints, so it is resolved right away.  The parameters and the comments are only
+ * needed by some output formats, so they are resolved the first time they are read.
+ */
+public class EndpointTemplate {
+    private final MethodDoc method;
+    private final EndpointMapping methodMapping;
+    private final Lazy<Collection<PathVar>> pathVars;
+    private final Lazy<Collection<QueryParam>> queryParams;
+    private final Lazy<RequestBody> requestBody;
+    private final Lazy<String> commentText;
+    private final Lazy<String> firstSentence;
+    private final TypeRef type;
+
+    public EndpointTemplate(
+            MethodDoc method,
+            EndpointMapping methodMapping,
+            Lazy<Collection<PathVar>> pathVars,
+            Lazy<Collection<QueryParam>> queryParams,
+            Lazy<RequestBody> requestBody,
+            Lazy<String> commentText,
+            Lazy<String> firstSentence,
+            TypeRef type) {
+
+        this.method = method;
+        this.methodMapping = methodMapping;
+        this.pathVars = pathVars;
+        this.queryParams = queryParams;
+        this.requestBody = requestBody;
+        this.commentText = commentText;
+        this.firstSentence = firstSentence;
+        this.type = type;
+    }
+
+    /**
+     * The method declared in the class the template belongs to.  For an endpoint reached through a sub-resource locator
+     * this is the locator.
+     */
+    public MethodDoc getMethod() {
+        return method;
+    }
+
+    public EndpointMapping getMethodMapping() {
+        return methodMapping;
+    }
+
+    public Lazy<Collection<PathVar>> getPathVars() {
+        return pathVars;
+    }
+
+    public Lazy<Collection<QueryParam>> getQueryParams() {
+        return queryParams;
+    }
+
+    public Lazy<RequestBody> getRequestBody() {
+        return requestBody;
+    }
+
+    public Lazy<String> getCommentText() {
+        return commentText;
+    }
+
+    public Lazy<String> getFirstSentence() {
+        return firstSentence;
+    }
+
+    public TypeRef getType() {
+        return type;
+    }
+}
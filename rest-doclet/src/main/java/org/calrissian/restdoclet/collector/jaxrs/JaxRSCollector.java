@@ -18,25 +18,43 @@ package org.calrissian.restdoclet.collector.jaxrs;
 import com.sun.javadoc.*;
 import org.calrissian.restdoclet.collector.AbstractCollector;
 import org.calrissian.restdoclet.collector.EndpointMapping;
+import org.calrissian.restdoclet.collector.EndpointTemplate;
 import org.calrissian.restdoclet.model.PathVar;
 import org.calrissian.restdoclet.model.QueryParam;
 import org.calrissian.restdoclet.model.RequestBody;
+import org.calrissian.restdoclet.util.AnnotationIndex;
+import org.calrissian.restdoclet.util.Budget;
+import org.calrissian.restdoclet.util.DocCache;
+import org.calrissian.restdoclet.util.Lazy;
+import org.calrissian.restdoclet.util.TagIndex;
+import org.calrissian.restdoclet.util.TypeRefs;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
-import static org.calrissian.restdoclet.util.AnnotationUtils.getAnnotationName;
-import static org.calrissian.restdoclet.util.AnnotationUtils.getElementValue;
+import static org.calrissian.restdoclet.util.AnnotationUtils.getInterfaceMergedAnnotationIndex;
+import static org.calrissian.restdoclet.util.AnnotationUtils.getMergedAnnotationIndex;
+import static org.calrissian.restdoclet.util.CommonUtils.firstNonEmpty;
 import static org.calrissian.restdoclet.util.CommonUtils.isEmpty;
-import static org.calrissian.restdoclet.util.TagUtils.*;
+import static org.calrissian.restdoclet.util.DocUtils.getMethods;
+import static org.calrissian.restdoclet.util.DocUtils.getParameterName;
+import static org.calrissian.restdoclet.util.DocUtils.getParameterType;
+import static org.calrissian.restdoclet.util.DocUtils.getParameters;
+import static org.calrissian.restdoclet.util.DocUtils.getReturnType;
+import static org.calrissian.restdoclet.util.TagUtils.getTagIndex;
 
 public class JaxRSCollector extends AbstractCollector {
+    public static final String COLLECTOR_OPTION_NAME = "jaxrs";
 
     protected static final String ANNOTATION_PACKAGE = "javax.ws.rs.";
 
     protected static final String PATH_ANNOTATION = ANNOTATION_PACKAGE + "Path";
+    protected static final String HTTP_METHOD_ANNOTATION = ANNOTATION_PACKAGE + "HttpMethod";
 
     protected static final String GET_ANNOTATION = ANNOTATION_PACKAGE + "GET";
     protected static final String POST_ANNOTATION = ANNOTATION_PACKAGE + "POST";
@@ -50,19 +68,49 @@ public class JaxRSCollector extends AbstractCollector {
     protected static final String PATHVAR_ANNOTATION = ANNOTATION_PACKAGE + "PathParam";
     protected static final String PARAM_ANNOTATION = ANNOTATION_PACKAGE + "QueryParam";
 
+    //Only the sub-resources whose templates do not depend on the class being described are cached, see resolve.
+    private final DocCache<ClassDoc, Collection<EndpointTemplate>> subResources = DocCache.stored();
+
+    private Set<ClassDoc> locatorTargets = Collections.emptySet();
+
+    /**
+     * Finds the classes returned by sub-resource locators.
+     */
+    @Override
+    public void prepare(ClassDoc[] classDocs) {
+        Set<ClassDoc> targets = new HashSet<ClassDoc>();
+        for (ClassDoc classDoc : classDocs) {
+            for (MethodDoc methodDoc : getMethods(classDoc)) {
+                if (isLocator(methodDoc)) {
+                    Type returnType = getReturnType(methodDoc);
+                    ClassDoc target = (returnType == null ? null : DocCache.read(returnType::asClassDoc));
+                    if (target != null)
+                        targets.add(target);
+                }
+            }
+        }
+
+        this.locatorTargets = targets;
+    }
+
     @Override
     protected boolean shouldIgnoreClass(ClassDoc classDoc) {
 
-        //Look for any JAXRS annotations in the class or the methods.  If found then don't ignore this class.
-        for (AnnotationDesc classAnnotation : classDoc.annotations()) {
-            String annotationName = getAnnotationName(classAnnotation);
-            if (annotationName != null && annotationName.startsWith(ANNOTATION_PACKAGE))
+        //A sub-resource without a path of its own is documented through the locators which return it.
+        AnnotationIndex classAnnotations = getInterfaceMergedAnnotationIndex(classDoc);
+        if (locatorTargets.contains(classDoc) && !classAnnotations.contains(PATH_ANNOTATION))
+            return true;
+
+        //Look for any JAXRS annotations in the class or the methods.  If found then don't ignore this class.  Like in
+        //JAX-RS, class annotations are only inherited from interfaces, so a subclass of a resource is not one itself.
+        for (String annotationName : classAnnotations.getNames()) {
+            if (annotationName.startsWith(ANNOTATION_PACKAGE))
                 return false;
 
         }
 
-        for (MethodDoc methodDoc : classDoc.methods(true)) {
-            if (!shouldIgnoreMethod(methodDoc))
+        for (MethodDoc methodDoc : getMethods(classDoc)) {
+            if (DocCache.read(methodDoc::isIncluded) && !shouldIgnoreMethod(methodDoc))
                 return false;
         }
 
@@ -72,18 +120,209 @@ public class JaxRSCollector extends AbstractCollector {
     @Override
     protected boolean shouldIgnoreMethod(MethodDoc methodDoc) {
 
-        //Jax RS methods need a method annotation inorder to be used, so simply look for them.
-        for (AnnotationDesc methodAnnotation : methodDoc.annotations()) {
-            String annotationName = getAnnotationName(methodAnnotation);
-            if (GET_ANNOTATION.equals(annotationName) ||
-                    POST_ANNOTATION.equals(annotationName) ||
-                    PUT_ANNOTATION.equals(annotationName) ||
-                    DELETE_ANNOTATION.equals(annotationName) ||
-                    HEAD_ANNOTATION.equals(annotationName)) {
-                return false;
+        //Jax RS methods need a method annotation inorder to be used.  Every method annotation, including custom ones,
+        //is meta-annotated with the HttpMethod annotation, so simply look for it.  Sub-resource locators are used too.
+        return !getMergedAnnotationIndex(methodDoc).contains(HTTP_METHOD_ANNOTATION) && !isLocator(methodDoc);
+    }
+
+    /**
+     * Checks if the method is a sub-resource locator, which is a method with a path but no http method.  The resource
+     * returned by the locator handles the requests below the path.
+     *
+     * @param methodDoc
+     *
+     * @return
+     */
+    protected boolean isLocator(MethodDoc methodDoc) {
+        AnnotationIndex annotations = getMergedAnnotationIndex(methodDoc);
+        return annotations.contains(PATH_ANNOTATION) && !annotations.contains(HTTP_METHOD_ANNOTATION);
+    }
+
+    /**
+     * Retrieves the templates of the class, including the ones inherited from super classes, and follows every
+     * sub-resource locator into the class it returns.  A locator which leads back to a class that is already being
+     * followed, including the class itself, is recursive and is not followed.
+     *
+     * @param classDoc
+     *
+     * @return
+     */
+    @Override
+    protected Collection<EndpointTemplate> getAllTemplates(ClassDoc classDoc) {
+        return resolve(classDoc, new HashSet<ClassDoc>()).getTemplates();
+    }
+
+    /**
+     * Resolves the templates of a class, following its locators.  The classes being followed are the path, which is
+     * where recursive locators are cut.  When nothing is cut the templates only depend on the class, not on the path
+     * or on the order the classes are described in.
+     */
+    private Resolution resolve(ClassDoc classDoc, Set<ClassDoc> path) {
+        path.add(classDoc);
+        try {
+            Collection<EndpointTemplate> templates = new ArrayList<EndpointTemplate>();
+            boolean complete = true;
+            for (EndpointTemplate template : super.getAllTemplates(classDoc)) {
+                MethodDoc method = template.getMethod();
+                if (!isLocator(method)) {
+                    templates.add(template);
+                    continue;
+                }
+
+                Type returnType = getReturnType(method);
+                ClassDoc target = (returnType == null ? null : DocCache.read(returnType::asClassDoc));
+                if (target == null || isBoundary(target))
+                    continue;
+
+                //A locator which leads back to a class on the path is recursive, so stop following it.
+                if (path.contains(target)) {
+                    complete = false;
+                    continue;
+                }
+
+                //Each locator followed is a level of nesting for the budget of the class being described.
+                Resolution subResource;
+                Budget.enter();
+                try {
+                    subResource = resolveSubResource(target, path);
+                } finally {
+                    Budget.exit();
+                }
+
+                complete &= subResource.isComplete();
+                templates.addAll(bindLocator(template, subResource.getTemplates()));
             }
+
+            return new Resolution(templates, complete);
+        } finally {
+            path.remove(classDoc);
         }
-        return true;
+    }
+
+    /**
+     * The templates of a sub-resource class, relative to the locator which returns it.  A sub-resource returned by many
+     * locators is only resolved once, unless a recursive locator was cut while resolving it.  Those templates depend
+     * on the path they were resolved from, so they are never cached.
+     */
+    private Resolution resolveSubResource(ClassDoc target, Set<ClassDoc> path) {
+        Collection<EndpointTemplate> cached = subResources.getIfPresent(target);
+        if (cached != null)
+            return new Resolution(cached, true);
+
+        Resolution resolution = resolve(target, path);
+
+        //The path of a sub-resource class is ignored, but the media types still apply to its methods.
+        EndpointMapping classMapping = getEndpointMapping(target);
+
+        Collection<EndpointTemplate> templates = new ArrayList<EndpointTemplate>();
+        for (EndpointTemplate template : resolution.getTemplates()) {
+            EndpointMapping mapping = template.getMethodMapping();
+            templates.add(
+                new EndpointTemplate(
+                    template.getMethod(),
+                    new EndpointMapping(
+                        mapping.getPaths(),
+                        mapping.getHttpMethods(),
+                        firstNonEmpty(mapping.getConsumes(), classMapping.getConsumes()),
+                        firstNonEmpty(mapping.getProduces(), classMapping.getProduces())
+                    ),
+                    template.getPathVars(),
+                    template.getQueryParams(),
+                    template.getRequestBody(),
+                    template.getCommentText(),
+                    template.getFirstSentence(),
+                    template.getType()
+                )
+            );
+        }
+
+        if (resolution.isComplete())
+            templates = subResources.putIfAbsent(target, templates);
+
+        return new Resolution(templates, resolution.isComplete());
+    }
+
+    /**
+     * Provides every endpoint of a sub-resource with the path of the locator as a prefix, and with the path and query
+     * params of the locator.
+     *
+     * @param locator the template of the locator method
+     * @param subResourceTemplates
+     *
+     * @return
+     */
+    private static Collection<EndpointTemplate> bindLocator(EndpointTemplate locator,
+                                                           Collection<EndpointTemplate> subResourceTemplates) {
+        EndpointMapping locatorMapping = locator.getMethodMapping();
+
+        Collection<EndpointTemplate> templates = new ArrayList<EndpointTemplate>();
+        for (EndpointTemplate template : subResourceTemplates) {
+            EndpointMapping mapping = template.getMethodMapping();
+            templates.add(
+                new EndpointTemplate(
+                    locator.getMethod(),
+                    new EndpointMapping(
+                        composePaths(locatorMapping.getPaths(), mapping.getPaths()),
+                        mapping.getHttpMethods(),
+                        firstNonEmpty(mapping.getConsumes(), locatorMapping.getConsumes()),
+                        firstNonEmpty(mapping.getProduces(), locatorMapping.getProduces())
+                    ),
+                    Lazy.of(() -> mergePathVars(locator.getPathVars().get(), template.getPathVars().get())),
+                    Lazy.of(() -> mergeQueryParams(locator.getQueryParams().get(), template.getQueryParams().get())),
+                    template.getRequestBody(),
+                    template.getCommentText(),
+                    template.getFirstSentence(),
+                    template.getType()
+                )
+            );
+        }
+
+        return templates;
+    }
+
+    private static Collection<String> composePaths(Collection<String> prefixes, Collection<String> paths) {
+        if (isEmpty(prefixes))
+            return paths;
+        if (isEmpty(paths))
+            return prefixes;
+
+        Collection<String> composed = new LinkedHashSet<String>();
+        for (String prefix : prefixes)
+            for (String path : paths)
+                composed.add(prefix + "/" + path);
+
+        return composed;
+    }
+
+    private static Collection<PathVar> mergePathVars(Collection<PathVar> locatorVars, Collection<PathVar> pathVars) {
+        if (isEmpty(locatorVars))
+            return pathVars;
+
+        Collection<PathVar> merged = new ArrayList<PathVar>(locatorVars);
+        Set<String> names = new HashSet<String>();
+        for (PathVar pathVar : locatorVars)
+            names.add(pathVar.getName());
+        for (PathVar pathVar : pathVars)
+            if (names.add(pathVar.getName()))
+                merged.add(pathVar);
+
+        return merged;
+    }
+
+    private static Collection<QueryParam> mergeQueryParams(Collection<QueryParam> locatorParams,
+                                                           Collection<QueryParam> queryParams) {
+        if (isEmpty(locatorParams))
+            return queryParams;
+
+        Collection<QueryParam> merged = new ArrayList<QueryParam>(locatorParams);
+        Set<String> names = new HashSet<String>();
+        for (QueryParam queryParam : locatorParams)
+            names.add(queryParam.getName());
+        for (QueryParam queryParam : queryParams)
+            if (names.add(queryParam.getName()))
+                merged.add(queryParam);
+
+        return merged;
     }
 
     @Override
@@ -93,25 +332,19 @@ public class JaxRSCollector extends AbstractCollector {
         Collection<String> consumes = new LinkedHashSet<String>();
         Collection<String> produces = new LinkedHashSet<String>();
 
-        //Look for a request mapping annotation
-        for (AnnotationDesc annotation : doc.annotations()) {
-
-            String annotationName = getAnnotationName(annotation);
-
-            if (GET_ANNOTATION.equals(annotationName) ||
-                    POST_ANNOTATION.equals(annotationName) ||
-                    PUT_ANNOTATION.equals(annotationName) ||
-                    DELETE_ANNOTATION.equals(annotationName) ||
-                    HEAD_ANNOTATION.equals(annotationName)) {
-
-                httpMethods.add(annotationName.replace(ANNOTATION_PACKAGE, ""));
+        //Look for a request mapping annotation, including any inherited from an interface or overridden method.
+        AnnotationIndex annotations = (doc instanceof ClassDoc ? getInterfaceMergedAnnotationIndex((ClassDoc) doc) :
+                getMergedAnnotationIndex(doc));
+        for (String annotationName : annotations.getNames()) {
 
+            if (HTTP_METHOD_ANNOTATION.equals(annotationName)) {
+                httpMethods.addAll(annotations.getElementValue(annotationName, "value"));
             } else if (PATH_ANNOTATION.equals(annotationName)) {
-                paths.addAll(getElementValue(annotation, "value"));
+                paths.addAll(annotations.getElementValue(annotationName, "value"));
             } else if (CONSUMES_ANNOTATION.equals(annotationName)) {
-                consumes.addAll(getElementValue(annotation, "value"));
+                consumes.addAll(annotations.getElementValue(annotationName, "value"));
             } else if (PRODUCES_ANNOTATION.equals(annotationName)) {
-                produces.addAll(getElementValue(annotation, "value"));
+                produces.addAll(annotations.getElementValue(annotationName, "value"));
             }
         }
 
@@ -127,26 +360,26 @@ public class JaxRSCollector extends AbstractCollector {
     protected Collection<PathVar> generatePathVars(MethodDoc methodDoc) {
         Collection<PathVar> retVal = new ArrayList<PathVar>();
 
-        Tag[] tags = methodDoc.tags(PATHVAR_TAG);
-        ParamTag[] paramTags = methodDoc.paramTags();
-
-        for (Parameter parameter : methodDoc.parameters()) {
-            for (AnnotationDesc annotation : parameter.annotations()) {
-                if (getAnnotationName(annotation).equals(PATHVAR_ANNOTATION)) {
-                    String name = parameter.name();
-                    List<String> values = getElementValue(annotation, "value");
-                    if (!values.isEmpty())
-                        name = values.get(0);
-
-                    //first check for special tag, then check regular param tag, finally default to empty string
-                    String text = findParamText(tags, name);
-                    if (text == null)
-                        text = findParamText(paramTags, parameter.name());
-                    if (text == null)
-                        text = "";
-
-                    retVal.add(new PathVar(name, text, parameter.type()));
-                }
+        TagIndex tags = getTagIndex(methodDoc);
+
+        Parameter[] parameters = getParameters(methodDoc);
+        for (int i = 0; i < parameters.length; i++) {
+            Parameter parameter = parameters[i];
+            AnnotationIndex annotations = getMergedAnnotationIndex(methodDoc, i);
+            if (annotations.contains(PATHVAR_ANNOTATION)) {
+                String name = getParameterName(parameter);
+                List<String> values = annotations.getElementValue(PATHVAR_ANNOTATION, "value");
+                if (!values.isEmpty())
+                    name = values.get(0);
+
+                //first check for special tag, then check regular param tag, finally default to empty string
+                String text = tags.getPathVarText(name);
+                if (text == null)
+                    text = tags.getParamText(getParameterName(parameter));
+                if (text == null)
+                    text = "";
+
+                retVal.add(new PathVar(name, text, TypeRefs.of(getParameterType(parameter))));
             }
         }
 
@@ -157,26 +390,26 @@ public class JaxRSCollector extends AbstractCollector {
     protected Collection<QueryParam> generateQueryParams(MethodDoc methodDoc) {
         Collection<QueryParam> retVal = new ArrayList<QueryParam> ();
 
-        Tag[] tags = methodDoc.tags(QUERYPARAM_TAG);
-        ParamTag[] paramTags = methodDoc.paramTags();
-
-        for (Parameter parameter : methodDoc.parameters()) {
-            for (AnnotationDesc annotation : parameter.annotations()) {
-                if (getAnnotationName(annotation).equals(PARAM_ANNOTATION)) {
-                    String name = parameter.name();
-                    List<String> values = getElementValue(annotation, "value");
-                    if (!values.isEmpty())
-                        name = values.get(0);
-
-                    //first check for special tag, then check regular param tag, finally default to empty string
-                    String text = findParamText(tags, name);
-                    if (text == null)
-                        text = findParamText(paramTags, parameter.name());
-                    if (text == null)
-                        text = "";
-
-                    retVal.add(new QueryParam(name, false, text, parameter.type()));
-                }
+        TagIndex tags = getTagIndex(methodDoc);
+
+        Parameter[] parameters = getParameters(methodDoc);
+        for (int i = 0; i < parameters.length; i++) {
+            Parameter parameter = parameters[i];
+            AnnotationIndex annotations = getMergedAnnotationIndex(methodDoc, i);
+            if (annotations.contains(PARAM_ANNOTATION)) {
+                String name = getParameterName(parameter);
+                List<String> values = annotations.getElementValue(PARAM_ANNOTATION, "value");
+                if (!values.isEmpty())
+                    name = values.get(0);
+
+                //first check for special tag, then check regular param tag, finally default to empty string
+                String text = tags.getQueryParamText(name);
+                if (text == null)
+                    text = tags.getParamText(getParameterName(parameter));
+                if (text == null)
+                    text = "";
+
+                retVal.add(new QueryParam(name, false, text, TypeRefs.of(getParameterType(parameter))));
             }
         }
         return retVal;
@@ -184,22 +417,24 @@ public class JaxRSCollector extends AbstractCollector {
 
     @Override
     protected RequestBody generateRequestBody(MethodDoc methodDoc) {
-        Tag[] tags = methodDoc.tags(REQUESTBODY_TAG);
-        ParamTag[] paramTags = methodDoc.paramTags();
+        TagIndex tags = getTagIndex(methodDoc);
 
-        for (Parameter parameter : methodDoc.parameters()) {
+        Parameter[] parameters = getParameters(methodDoc);
+        for (int i = 0; i < parameters.length; i++) {
+            Parameter parameter = parameters[i];
 
             //TODO, need to double check this logic more.
             //ignore anything in annotations and that starts with javax.  Then just accept the first one.
-            if (isEmpty(parameter.annotations()) && !parameter.typeName().startsWith("javax.")) {
+            if (getMergedAnnotationIndex(methodDoc, i).isEmpty() &&
+                    !DocCache.read(parameter::typeName).startsWith("javax.")) {
                 //first check for special tag, then check regular param tag, finally default to empty string
-                String text = (isEmpty(tags) ? null : tags[0].text());
+                String text = tags.getRequestBodyText();
                 if (text == null)
-                    text = findParamText(paramTags, parameter.name());
+                    text = tags.getParamText(getParameterName(parameter));
                 if (text == null)
                     text = "";
 
-                return new RequestBody(parameter.name(), text, parameter.type());
+                return new RequestBody(getParameterName(parameter), text, TypeRefs.of(getParameterType(parameter)));
             }
         }
         return null;
@@ -210,4 +445,26 @@ public class JaxRSCollector extends AbstractCollector {
         //Only methods should have http methods.
         return methodMapping.getHttpMethods();
     }
+
+    /**
+     * The templates of a class with its locators followed, and whether they were resolved without cutting a recursive
+     * locator.
+     */
+    private static class Resolution {
+        private final Collection<EndpointTemplate> templates;
+        private final boolean complete;
+
+        private Resolution(Collection<EndpointTemplate> templates, boolean complete) {
+            this.templates = templates;
+            this.complete = complete;
+        }
+
+        private Collection<EndpointTemplate> getTemplates() {
+            return templates;
+        }
+
+        private boolean isComplete() {
+            return complete;
+        }
+    }
 }
@@ -21,32 +21,32 @@ import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 
-import com.sun.javadoc.AnnotationDesc;
 import com.sun.javadoc.ClassDoc;
 import com.sun.javadoc.MethodDoc;
-import com.sun.javadoc.ParamTag;
 import com.sun.javadoc.Parameter;
 import com.sun.javadoc.ProgramElementDoc;
-import com.sun.javadoc.Tag;
 import org.calrissian.restdoclet.collector.AbstractCollector;
 import org.calrissian.restdoclet.collector.EndpointMapping;
 import org.calrissian.restdoclet.model.PathVar;
 import org.calrissian.restdoclet.model.QueryParam;
 import org.calrissian.restdoclet.model.RequestBody;
+import org.calrissian.restdoclet.util.AnnotationIndex;
+import org.calrissian.restdoclet.util.TagIndex;
+import org.calrissian.restdoclet.util.TypeRefs;
 
 import static java.lang.Boolean.TRUE;
 import static java.util.Arrays.asList;
-import static org.calrissian.restdoclet.util.AnnotationUtils.getAnnotationName;
-import static org.calrissian.restdoclet.util.AnnotationUtils.getElementValue;
+import static org.calrissian.restdoclet.util.AnnotationUtils.getAnnotationIndex;
+import static org.calrissian.restdoclet.util.AnnotationUtils.getMergedAnnotationIndex;
 import static org.calrissian.restdoclet.util.CommonUtils.firstNonEmpty;
-import static org.calrissian.restdoclet.util.CommonUtils.isEmpty;
-import static org.calrissian.restdoclet.util.TagUtils.PATHVAR_TAG;
-import static org.calrissian.restdoclet.util.TagUtils.QUERYPARAM_TAG;
-import static org.calrissian.restdoclet.util.TagUtils.REQUESTBODY_TAG;
-import static org.calrissian.restdoclet.util.TagUtils.findParamComment;
-import static org.calrissian.restdoclet.util.TagUtils.findParamText;
+import static org.calrissian.restdoclet.util.DocUtils.getContainingClass;
+import static org.calrissian.restdoclet.util.DocUtils.getParameterName;
+import static org.calrissian.restdoclet.util.DocUtils.getParameterType;
+import static org.calrissian.restdoclet.util.DocUtils.getParameters;
+import static org.calrissian.restdoclet.util.TagUtils.getTagIndex;
 
 public class SpringCollector extends AbstractCollector {
+    public static final String COLLECTOR_OPTION_NAME = "spring";
 
     protected static final String CONTROLLER_ANNOTATION = "org.springframework.stereotype.Controller";
     protected static final String REST_CONTROLLER_ANNOTATION = "org.springframework.web.bind.annotation.RestController";
@@ -60,63 +60,42 @@ public class SpringCollector extends AbstractCollector {
     @Override
     protected boolean shouldIgnoreClass(ClassDoc classDoc) {
         //If found a controller annotation then don't ignore this class.
-        for (AnnotationDesc classAnnotation : classDoc.annotations()) {
-            String annotationName = getAnnotationName(classAnnotation);
-            if (CONTROLLER_ANNOTATION.equals(annotationName) || REST_CONTROLLER_ANNOTATION.equals(annotationName)) {
-                return false;
-            }
-        }
-
-        //If not found then ignore this class.
-        return true;
+        AnnotationIndex annotations = getAnnotationIndex(classDoc);
+        return !annotations.contains(CONTROLLER_ANNOTATION) && !annotations.contains(REST_CONTROLLER_ANNOTATION);
     }
 
     @Override
     protected boolean shouldIgnoreMethod(MethodDoc methodDoc) {
-        //If found a mapping annotation then don't ignore this class.
-        boolean hasMappingAnnotation = false;
-        boolean hasResponseBodyAnnotation = false;
-        for (AnnotationDesc classAnnotation : methodDoc.annotations()) {
-            String annotationName = getAnnotationName(classAnnotation);
-
-            if (MAPPING_ANNOTATION.equals(annotationName)) {
-                hasMappingAnnotation = true;
-            } else if (RESPONSE_BODY_ANNOTATION.equals(annotationName)) {
-                hasResponseBodyAnnotation = true;
-            }
-        }
-
-        for (AnnotationDesc annotationDesc : methodDoc.containingClass().annotations()) {
-            String annotationName = getAnnotationName(annotationDesc);
-
-            if (RESPONSE_BODY_ANNOTATION.equals(annotationName)) {
-                hasResponseBodyAnnotation = true;
-            }
-        }
+        //If found a mapping annotation then don't ignore this class.  The mapping may be inherited from an interface or
+        //from the method being overridden.
+        AnnotationIndex annotations = getMergedAnnotationIndex(methodDoc);
+        boolean hasMappingAnnotation = annotations.contains(MAPPING_ANNOTATION);
+        boolean hasResponseBodyAnnotation = annotations.contains(RESPONSE_BODY_ANNOTATION) ||
+                getMergedAnnotationIndex(getContainingClass(methodDoc)).contains(RESPONSE_BODY_ANNOTATION);
 
         return !hasMappingAnnotation || !hasResponseBodyAnnotation;
     }
 
     @Override
     protected EndpointMapping getEndpointMapping(ProgramElementDoc doc) {
-        //Look for a request mapping annotation
-        for (AnnotationDesc annotation : doc.annotations()) {
-            //If found then extract the value (paths) and the methods.
-            if (MAPPING_ANNOTATION.equals(getAnnotationName(annotation))) {
-
-                //Get http methods from annotation
-                Collection<String> httpMethods = new LinkedHashSet<String>();
-                for (String value : getElementValue(annotation, "method")) {
-                    httpMethods.add(value.substring(value.lastIndexOf(".") + 1));
-                }
-
-                return new EndpointMapping(
-                    new LinkedHashSet<String>(getElementValue(annotation, "value")),
-                    httpMethods,
-                    new LinkedHashSet<String>(getElementValue(annotation, "consumes")),
-                    new LinkedHashSet<String>(getElementValue(annotation, "produces"))
-                );
+        //Look for a request mapping annotation, composed annotations like @GetMapping are already resolved to one.
+        AnnotationIndex annotations = getMergedAnnotationIndex(doc);
+
+        //If found then extract the value (paths) and the methods.
+        if (annotations.contains(MAPPING_ANNOTATION)) {
+
+            //Get http methods from annotation
+            Collection<String> httpMethods = new LinkedHashSet<String>();
+            for (String value : annotations.getElementValue(MAPPING_ANNOTATION, "method")) {
+                httpMethods.add(value.substring(value.lastIndexOf(".") + 1));
             }
+
+            return new EndpointMapping(
+                new LinkedHashSet<String>(annotations.getElementValue(MAPPING_ANNOTATION, "value")),
+                httpMethods,
+                new LinkedHashSet<String>(annotations.getElementValue(MAPPING_ANNOTATION, "consumes")),
+                new LinkedHashSet<String>(annotations.getElementValue(MAPPING_ANNOTATION, "produces"))
+            );
         }
 
         //Simply return an empty grouping if no request mapping was found.
@@ -132,23 +111,23 @@ public class SpringCollector extends AbstractCollector {
     protected Collection<PathVar> generatePathVars(MethodDoc methodDoc) {
         Collection<PathVar> retVal = new ArrayList<PathVar>();
 
-        Tag[] tags = methodDoc.tags(PATHVAR_TAG);
-        ParamTag[] paramTags = methodDoc.paramTags();
+        TagIndex tags = getTagIndex(methodDoc);
 
-        for (Parameter parameter : methodDoc.parameters()) {
-            for (AnnotationDesc annotation : parameter.annotations()) {
-                if (getAnnotationName(annotation).equals(PATHVAR_ANNOTATION)) {
-                    String name = parameter.name();
-                    Collection<String> values = getElementValue(annotation, "value");
-                    if (!values.isEmpty()) { name = values.iterator().next(); }
+        Parameter[] parameters = getParameters(methodDoc);
+        for (int i = 0; i < parameters.length; i++) {
+            Parameter parameter = parameters[i];
+            AnnotationIndex annotations = getMergedAnnotationIndex(methodDoc, i);
+            if (annotations.contains(PATHVAR_ANNOTATION)) {
+                String name = getParameterName(parameter);
+                Collection<String> values = annotations.getElementValue(PATHVAR_ANNOTATION, "value");
+                if (!values.isEmpty()) { name = values.iterator().next(); }
 
-                    //first check for special tag, then check regular param tag, finally default to empty string
-                    String text = findParamText(tags, name);
-                    if (text == null) { text = findParamText(paramTags, parameter.name()); }
-                    if (text == null) { text = ""; }
+                //first check for special tag, then check regular param tag, finally default to empty string
+                String text = tags.getPathVarText(name);
+                if (text == null) { text = tags.getParamText(getParameterName(parameter)); }
+                if (text == null) { text = ""; }
 
-                    retVal.add(new PathVar(name, text, parameter.type()));
-                }
+                retVal.add(new PathVar(name, text, TypeRefs.of(getParameterType(parameter))));
             }
         }
 
@@ -159,35 +138,34 @@ public class SpringCollector extends AbstractCollector {
     protected Collection<QueryParam> generateQueryParams(MethodDoc methodDoc) {
         Collection<QueryParam> retVal = new ArrayList<QueryParam>();
 
-        Tag[] tags = methodDoc.tags(QUERYPARAM_TAG);
-        ParamTag[] paramTags = methodDoc.paramTags();
+        TagIndex tags = getTagIndex(methodDoc);
 
-        for (Parameter parameter : methodDoc.parameters()) {
-            if (parameter.annotations() == null || parameter.annotations().length == 0) {
-                String name = parameter.name();
+        Parameter[] parameters = getParameters(methodDoc);
+        for (int i = 0; i < parameters.length; i++) {
+            Parameter parameter = parameters[i];
+            AnnotationIndex annotations = getMergedAnnotationIndex(methodDoc, i);
+            if (annotations.isEmpty()) {
+                String name = getParameterName(parameter);
 
-                retVal.add(new QueryParam(name, true, findParamComment(paramTags, name), parameter.type()));
-            } else {
-                for (AnnotationDesc annotation : parameter.annotations()) {
-                    if (getAnnotationName(annotation).equals(PARAM_ANNOTATION)) {
-                        String name = parameter.name();
-                        List<String> values = getElementValue(annotation, "value");
-                        if (!values.isEmpty()) { name = values.get(0); }
+                retVal.add(new QueryParam(name, true, tags.getParamComment(name),
+                        TypeRefs.of(getParameterType(parameter))));
+            } else if (annotations.contains(PARAM_ANNOTATION)) {
+                String name = getParameterName(parameter);
+                List<String> values = annotations.getElementValue(PARAM_ANNOTATION, "value");
+                if (!values.isEmpty()) { name = values.get(0); }
 
-                        List<String> requiredVals = getElementValue(annotation, "required");
+                List<String> requiredVals = annotations.getElementValue(PARAM_ANNOTATION, "required");
 
-                        //With spring query params are required by default
-                        boolean required = TRUE;
-                        if (!requiredVals.isEmpty()) { required = Boolean.parseBoolean(requiredVals.get(0)); }
+                //With spring query params are required by default
+                boolean required = TRUE;
+                if (!requiredVals.isEmpty()) { required = Boolean.parseBoolean(requiredVals.get(0)); }
 
-                        //first check for special tag, then check regular param tag, finally default to empty string
-                        String text = findParamText(tags, name);
-                        if (text == null) { text = findParamText(paramTags, name); }
-                        if (text == null) { text = ""; }
+                //first check for special tag, then check regular param tag, finally default to empty string
+                String text = tags.getQueryParamText(name);
+                if (text == null) { text = tags.getParamText(name); }
+                if (text == null) { text = ""; }
 
-                        retVal.add(new QueryParam(name, required, text, parameter.type()));
-                    }
-                }
+                retVal.add(new QueryParam(name, required, text, TypeRefs.of(getParameterType(parameter))));
             }
         }
         return retVal;
@@ -196,20 +174,19 @@ public class SpringCollector extends AbstractCollector {
     @Override
     protected RequestBody generateRequestBody(MethodDoc methodDoc) {
 
-        Tag[] tags = methodDoc.tags(REQUESTBODY_TAG);
-        ParamTag[] paramTags = methodDoc.paramTags();
+        TagIndex tags = getTagIndex(methodDoc);
 
-        for (Parameter parameter : methodDoc.parameters()) {
-            for (AnnotationDesc annotation : parameter.annotations()) {
-                if (getAnnotationName(annotation).equals(REQUESTBODY_ANNOTATION)) {
+        Parameter[] parameters = getParameters(methodDoc);
+        for (int i = 0; i < parameters.length; i++) {
+            Parameter parameter = parameters[i];
+            if (getMergedAnnotationIndex(methodDoc, i).contains(REQUESTBODY_ANNOTATION)) {
 
-                    //first check for special tag, then check regular param tag, finally default to empty string
-                    String text = (isEmpty(tags) ? null : tags[0].text());
-                    if (text == null) { text = findParamText(paramTags, parameter.name()); }
-                    if (text == null) { text = ""; }
+                //first check for special tag, then check regular param tag, finally default to empty string
+                String text = tags.getRequestBodyText();
+                if (text == null) { text = tags.getParamText(getParameterName(parameter)); }
+                if (text == null) { text = ""; }
 
-                    return new RequestBody(parameter.name(), text, parameter.type());
-                }
+                return new RequestBody(getParameterName(parameter), text, TypeRefs.of(getParameterType(parameter)));
             }
         }
         return null;
@@ -17,20 +17,32 @@ package org.calrissian.restdoclet.model;
 
 import java.util.Collection;
 
+import static org.calrissian.restdoclet.util.StringPool.intern;
+
 public class ClassDescriptor {
 
     private final String name;
     private final String contextPath;
     private final Collection<Endpoint> endpoints;
     private final String description;
+    private final String qualifiedName;
 
     public ClassDescriptor(String name, String contextPath, Collection<Endpoint> endpoints, String description) {
-        this.name = name;
-        this.contextPath = contextPath;
+        this(name, contextPath, endpoints, description, null);
+    }
+
+    public ClassDescriptor(String name, String contextPath, Collection<Endpoint> endpoints, String description,
+                           String qualifiedName) {
+        this.name = intern(name);
+        this.contextPath = intern(contextPath);
         this.endpoints = endpoints;
-        this.description = description;
+        this.description = intern(description);
+        this.qualifiedName = intern(qualifiedName);
     }
 
+    /**
+     * The name the class is documented with, which is not necessarily unique.
+     */
     public String getName() {
         return name;
     }
@@ -47,6 +59,29 @@ public class ClassDescriptor {
         return description;
     }
 
+    /**
+     * The qualified name of the class the descriptor was collected from, or null if it is not known.
+     */
+    public String getQualifiedName() {
+        return qualifiedName;
+    }
+
+    /**
+     * Reads the lazy parts of every endpoint, so reading them later does not need the javadoc model.
+     */
+    public void resolve() {
+        if (endpoints == null)
+            return;
+
+        for (Endpoint endpoint : endpoints) {
+            endpoint.getPathVars();
+            endpoint.getQueryParams();
+            endpoint.getRequestBody();
+            endpoint.getShortDescription();
+            endpoint.getDescription();
+        }
+    }
+
     @Override
     public String toString() {
         return "ClassDescriptor{" +
@@ -54,6 +89,7 @@ public class ClassDescriptor {
                 ", contextPath='" + contextPath + '\'' +
                 ", endpoints=" + endpoints +
                 ", description='" + description + '\'' +
+                ", qualifiedName='" + qualifiedName + '\'' +
                 '}';
     }
 }
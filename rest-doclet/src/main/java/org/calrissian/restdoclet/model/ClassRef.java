@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.model;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableSet;
+import static org.calrissian.restdoclet.util.StringPool.intern;
+import static org.calrissian.restdoclet.util.StringPool.internAll;
+
+/**
+ * An immutable snapshot of the parts of a class which the writers use to describe it as a type.  There is a single
+ * instance per class in a run, shared by every {@link TypeRef} of the class.
+ *
+ * Classes can refer to each other through their fields, so the fields are added by the snapshot builder after the
+ * class itself has been created.  The list of fields is owned by the builder until the snapshot is complete, and is
+ * never changed afterwards.
+ */
+public class ClassRef {
+
+    private final String qualifiedName;
+    private final Set<String> supertypes;
+    private final List<String> enumConstants;
+    private final List<FieldRef> fields;
+    private final ClassRef superclass;
+
+    /**
+     * @param qualifiedName
+     * @param supertypes the qualified names of the class and all its supertypes
+     * @param enumConstants
+     * @param fields the fields declared by the class, see the class comment
+     * @param superclass
+     */
+    public ClassRef(String qualifiedName, Set<String> supertypes, List<String> enumConstants, List<FieldRef> fields,
+                    ClassRef superclass) {
+        this.qualifiedName = intern(qualifiedName);
+        this.supertypes = unmodifiableSet(supertypes);
+        this.enumConstants = unmodifiableList(internAll(enumConstants));
+        this.fields = unmodifiableList(fields);
+        this.superclass = superclass;
+    }
+
+    public String getQualifiedName() {
+        return qualifiedName;
+    }
+
+    /**
+     * The qualified names of the class and all its supertypes.
+     */
+    public Set<String> getSupertypes() {
+        return supertypes;
+    }
+
+    /**
+     * Checks if the class is the type, or a subtype, of the provided qualified class name.
+     */
+    public boolean isSubtypeOf(String qualifiedName) {
+        return supertypes.contains(qualifiedName);
+    }
+
+    /**
+     * Whether the class is an {@link Iterable}.
+     */
+    public boolean isContainer() {
+        return supertypes.contains(Iterable.class.getName());
+    }
+
+    public boolean isEnum() {
+        return !enumConstants.isEmpty();
+    }
+
+    /**
+     * The names of the enum constants, or an empty list if the class is not an enum.
+     */
+    public Collection<String> getEnumConstants() {
+        return enumConstants;
+    }
+
+    /**
+     * The fields declared in the class, regardless of access modifiers.  The fields of classes which are never
+     * expanded by the writers, like {@code java.lang.String}, are not captured.
+     */
+    public List<FieldRef> getFields() {
+        return fields;
+    }
+
+    public ClassRef getSuperclass() {
+        return superclass;
+    }
+
+    @Override
+    public String toString() {
+        return qualifiedName;
+    }
+}
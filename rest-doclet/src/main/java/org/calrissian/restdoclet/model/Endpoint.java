@@ -15,22 +15,23 @@
  *******************************************************************************/
 package org.calrissian.restdoclet.model;
 
-import com.sun.javadoc.Type;
+import org.calrissian.restdoclet.util.Lazy;
+import org.calrissian.restdoclet.util.PathTrie;
 
 import java.util.Collection;
 
+import static org.calrissian.restdoclet.util.StringPool.intern;
+
+/**
+ * A single http method and path.  Everything else is held by an {@link EndpointCore}, which is shared by all the
+ * endpoints of the same method.  The parameters and descriptions can be provided lazily, in which case they are only
+ * resolved when they are first read, so output formats which do not use them never pay for them.
+ */
 public class Endpoint {
 
-    private final String path;
+    private final PathNode path;
     private final String httpMethod;
-    private final Collection<QueryParam> queryParams;
-    private final Collection<PathVar> pathVars;
-    private final RequestBody requestBody;
-    private final Collection<String> consumes;
-    private final Collection<String> produces;
-    private final String shortDescription;
-    private final String description;
-    private final Type type;
+    private final EndpointCore core;
 
     public Endpoint(
             String path,
@@ -42,58 +43,86 @@ public class Endpoint {
             Collection<String> produces,
             String shortDescription,
             String description,
-            Type type) {
+            TypeRef type) {
+
+        this(PathTrie.intern(path), httpMethod, queryParams, pathVars, requestBody, consumes, produces,
+                shortDescription, description, type);
+    }
 
+    public Endpoint(
+            PathNode path,
+            String httpMethod,
+            Collection<QueryParam> queryParams,
+            Collection<PathVar> pathVars,
+            RequestBody requestBody,
+            Collection<String> consumes,
+            Collection<String> produces,
+            String shortDescription,
+            String description,
+            TypeRef type) {
+
+        this(path, httpMethod, new EndpointCore(Lazy.value(queryParams), Lazy.value(pathVars), Lazy.value(requestBody),
+                consumes, produces, Lazy.value(shortDescription), Lazy.value(description), type));
+    }
+
+    public Endpoint(PathNode path, String httpMethod, EndpointCore core) {
         this.path = path;
-        this.httpMethod = httpMethod;
-        this.queryParams = queryParams;
-        this.pathVars = pathVars;
-        this.requestBody = requestBody;
-        this.consumes = consumes;
-        this.produces = produces;
-        this.shortDescription = shortDescription;
-        this.description = description;
-        this.type = type;
+        this.httpMethod = intern(httpMethod);
+        this.core = core;
     }
 
     public String getPath() {
+        return path.getPath();
+    }
+
+    /**
+     * The node for the path in the run's {@link PathTrie}.  Endpoints with the same path share the same node.
+     */
+    public PathNode getPathNode() {
         return path;
     }
 
+    /**
+     * The part of the endpoint which is shared with the other http methods and paths of the same method.
+     */
+    public EndpointCore getCore() {
+        return core;
+    }
+
     public String getHttpMethod() {
         return httpMethod;
     }
 
     public Collection<QueryParam> getQueryParams() {
-        return queryParams;
+        return core.getQueryParams();
     }
 
     public Collection<PathVar> getPathVars() {
-        return pathVars;
+        return core.getPathVars();
     }
 
     public RequestBody getRequestBody() {
-        return requestBody;
+        return core.getRequestBody();
     }
 
     public Collection<String> getConsumes() {
-        return consumes;
+        return core.getConsumes();
     }
 
     public Collection<String> getProduces() {
-        return produces;
+        return core.getProduces();
     }
 
     public String getShortDescription() {
-        return shortDescription;
+        return core.getShortDescription();
     }
 
     public String getDescription() {
-        return description;
+        return core.getDescription();
     }
 
-    public Type getType() {
-        return type;
+    public TypeRef getType() {
+        return core.getType();
     }
 
     @Override
@@ -101,13 +130,13 @@ public class Endpoint {
         return "Endpoint{" +
                 "path='" + path + '\'' +
                 ", httpMethod='" + httpMethod + '\'' +
-                ", queryParams=" + queryParams +
-                ", pathVars=" + pathVars +
-                ", requestBody=" + requestBody +
-                ", consumes=" + consumes +
-                ", produces=" + produces +
-                ", shortDescription='" + shortDescription + '\'' +
-                ", description='" + description + '\'' +
+                ", queryParams=" + getQueryParams() +
+                ", pathVars=" + getPathVars() +
+                ", requestBody=" + getRequestBody() +
+                ", consumes=" + getConsumes() +
+                ", produces=" + getProduces() +
+                ", shortDescription='" + getShortDescription() + '\'' +
+                ", description='" + getDescription() + '\'' +
                 '}';
     }
 }
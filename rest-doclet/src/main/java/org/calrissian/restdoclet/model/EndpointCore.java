@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.model;
+
+import org.calrissian.restdoclet.util.Lazy;
+import org.calrissian.restdoclet.util.StringPool;
+
+import java.util.Collection;
+
+import static java.util.Collections.unmodifiableCollection;
+import static org.calrissian.restdoclet.util.StringPool.internAll;
+
+/**
+ * Everything about an endpoint except its http method and path.  A method mapped to several paths and http methods
+ * produces one endpoint for each combination, and all of them share a single core.
+ *
+ * A core is immutable, the collections it returns can not be modified, so it is safe to share.
+ */
+public class EndpointCore {
+
+    private final Lazy<Collection<QueryParam>> queryParams;
+    private final Lazy<Collection<PathVar>> pathVars;
+    private final Lazy<RequestBody> requestBody;
+    private final Collection<String> consumes;
+    private final Collection<String> produces;
+    private final Lazy<String> shortDescription;
+    private final Lazy<String> description;
+    private final TypeRef type;
+
+    public EndpointCore(
+            Lazy<Collection<QueryParam>> queryParams,
+            Lazy<Collection<PathVar>> pathVars,
+            Lazy<RequestBody> requestBody,
+            Collection<String> consumes,
+            Collection<String> produces,
+            Lazy<String> shortDescription,
+            Lazy<String> description,
+            TypeRef type) {
+
+        this.queryParams = queryParams.map(EndpointCore::<QueryParam>readOnly);
+        this.pathVars = pathVars.map(EndpointCore::<PathVar>readOnly);
+        this.requestBody = requestBody;
+        this.consumes = readOnly(internAll(consumes));
+        this.produces = readOnly(internAll(produces));
+        this.shortDescription = shortDescription.map(StringPool::intern);
+        this.description = description.map(StringPool::intern);
+        this.type = type;
+    }
+
+    public Collection<QueryParam> getQueryParams() {
+        return queryParams.get();
+    }
+
+    public Collection<PathVar> getPathVars() {
+        return pathVars.get();
+    }
+
+    public RequestBody getRequestBody() {
+        return requestBody.get();
+    }
+
+    public Collection<String> getConsumes() {
+        return consumes;
+    }
+
+    public Collection<String> getProduces() {
+        return produces;
+    }
+
+    public String getShortDescription() {
+        return shortDescription.get();
+    }
+
+    public String getDescription() {
+        return description.get();
+    }
+
+    public TypeRef getType() {
+        return type;
+    }
+
+    private static <T> Collection<T> readOnly(Collection<T> values) {
+        return (values == null ? null : unmodifiableCollection(values));
+    }
+}
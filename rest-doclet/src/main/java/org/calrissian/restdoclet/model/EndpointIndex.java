@@ -0,0 +1,227 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.model;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.calrissian.restdoclet.util.Lazy;
+import org.calrissian.restdoclet.util.PathTrie;
+
+/**
+ * Lookups over the endpoints of a run, built once and shared by every writer which needs all the descriptors at once,
+ * see {@link org.calrissian.restdoclet.writer.IndexSink}.  The built-in writers stream their output instead and do not
+ * use it.  Endpoints are identified by their row in the {@link EndpointTable}, and every lookup returns the matching
+ * rows in table order.  The returned arrays are shared, so they must not be modified.
+ *
+ * The lookup by parameter name needs the parameters of every endpoint, so it is only built the first time it is used.
+ */
+public class EndpointIndex {
+
+    private static final int[] NO_ROWS = new int[0];
+
+    private final Collection<ClassDescriptor> classDescriptors;
+    private final EndpointTable table;
+
+    private final Map<PathNode, int[]> byPrefix;
+    private final Map<PathNode, int[]> byPath;
+    private final Map<String, int[]> byVerb;
+    private final Map<String, int[]> byConsumes;
+    private final Map<String, int[]> byProduces;
+    private final Map<String, int[]> byClass;
+    private final Lazy<Map<String, int[]>> byParameter = Lazy.of(this::indexParameters);
+
+    private EndpointIndex(Collection<ClassDescriptor> classDescriptors, EndpointTable table) {
+        this.classDescriptors = classDescriptors;
+        this.table = table;
+
+        Map<PathNode, Rows> prefixes = new IdentityHashMap<PathNode, Rows>();
+        Map<PathNode, Rows> paths = new IdentityHashMap<PathNode, Rows>();
+        Map<String, Rows> verbs = new HashMap<String, Rows>();
+        Map<String, Rows> consumes = new HashMap<String, Rows>();
+        Map<String, Rows> produces = new HashMap<String, Rows>();
+        Map<String, Rows> classes = new HashMap<String, Rows>();
+
+        for (int row = 0; row < table.size(); row++) {
+            PathNode path = table.getPath(table.getPathId(row));
+            EndpointCore core = table.getCore(table.getCoreId(row));
+
+            for (PathNode node = path; node != null; node = node.getParent())
+                add(prefixes, node, row);
+            add(paths, path, row);
+            add(verbs, table.getVerb(table.getVerbId(row)), row);
+            for (String mediaType : core.getConsumes())
+                add(consumes, mediaType, row);
+            for (String mediaType : core.getProduces())
+                add(produces, mediaType, row);
+            String className = table.getQualifiedClassName(table.getClassId(row));
+            if (className != null)
+                add(classes, className, row);
+        }
+
+        this.byPrefix = freeze(prefixes);
+        this.byPath = freeze(paths);
+        this.byVerb = freeze(verbs);
+        this.byConsumes = freeze(consumes);
+        this.byProduces = freeze(produces);
+        this.byClass = freeze(classes);
+    }
+
+    /**
+     * Builds the index for the class descriptors.
+     */
+    public static EndpointIndex of(Collection<ClassDescriptor> classDescriptors) {
+        return new EndpointIndex(classDescriptors, EndpointTable.of(classDescriptors));
+    }
+
+    /**
+     * The class descriptors the index was built from.
+     */
+    public Collection<ClassDescriptor> getDescriptors() {
+        return classDescriptors;
+    }
+
+    public EndpointTable getTable() {
+        return table;
+    }
+
+    /**
+     * The endpoints of the rows, in the order of the rows.
+     */
+    public List<Endpoint> getEndpoints(int[] rows) {
+        return table.getEndpoints(rows, 0, rows.length);
+    }
+
+    /**
+     * The rows whose path is the path or starts with it.
+     */
+    public int[] getRowsByPrefix(PathNode path) {
+        return rowsOf(byPrefix.get(path));
+    }
+
+    /**
+     * The rows whose path is the path or starts with it.  The path is looked up without adding it to the run's trie.
+     */
+    public int[] getRowsByPrefix(String path) {
+        PathNode node = PathTrie.find(path);
+        return (node == null ? NO_ROWS : getRowsByPrefix(node));
+    }
+
+    /**
+     * The rows with exactly the path.
+     */
+    public int[] getRowsByPath(PathNode path) {
+        return rowsOf(byPath.get(path));
+    }
+
+    /**
+     * The rows with exactly the path.  The path is looked up without adding it to the run's trie.
+     */
+    public int[] getRowsByPath(String path) {
+        PathNode node = PathTrie.find(path);
+        return (node == null ? NO_ROWS : getRowsByPath(node));
+    }
+
+    public int[] getRowsByVerb(String httpMethod) {
+        return rowsOf(byVerb.get(httpMethod));
+    }
+
+    public int[] getRowsByConsumes(String mediaType) {
+        return rowsOf(byConsumes.get(mediaType));
+    }
+
+    public int[] getRowsByProduces(String mediaType) {
+        return rowsOf(byProduces.get(mediaType));
+    }
+
+    /**
+     * The rows with a path variable, query parameter or request body with the name.
+     */
+    public int[] getRowsByParameter(String name) {
+        return rowsOf(byParameter.get().get(name));
+    }
+
+    /**
+     * The rows of the class with the qualified name.  Display names are not used, as several classes can share one.
+     */
+    public int[] getRowsByClass(String qualifiedName) {
+        return rowsOf(byClass.get(qualifiedName));
+    }
+
+    private Map<String, int[]> indexParameters() {
+        Map<String, Rows> parameters = new HashMap<String, Rows>();
+        for (int row = 0; row < table.size(); row++) {
+            EndpointCore core = table.getCore(table.getCoreId(row));
+            for (PathVar pathVar : core.getPathVars())
+                add(parameters, pathVar.getName(), row);
+            for (QueryParam queryParam : core.getQueryParams())
+                add(parameters, queryParam.getName(), row);
+            if (core.getRequestBody() != null)
+                add(parameters, core.getRequestBody().getName(), row);
+        }
+
+        return freeze(parameters);
+    }
+
+    private static int[] rowsOf(int[] rows) {
+        return (rows == null ? NO_ROWS : rows);
+    }
+
+    private static <K> void add(Map<K, Rows> index, K key, int row) {
+        Rows rows = index.get(key);
+        if (rows == null) {
+            rows = new Rows();
+            index.put(key, rows);
+        }
+
+        //A row can only be added twice in a row, like an endpoint which lists a media type twice.
+        rows.add(row);
+    }
+
+    private static <K> Map<K, int[]> freeze(Map<K, Rows> index) {
+        Map<K, int[]> frozen = (index instanceof IdentityHashMap ? new IdentityHashMap<K, int[]>(index.size()) :
+                new HashMap<K, int[]>(index.size()));
+        for (Map.Entry<K, Rows> entry : index.entrySet())
+            frozen.put(entry.getKey(), entry.getValue().toArray());
+
+        return frozen;
+    }
+
+    /**
+     * A growable list of rows in ascending order.
+     */
+    private static class Rows {
+        private int[] rows = new int[4];
+        private int size = 0;
+
+        private void add(int row) {
+            if (size > 0 && rows[size - 1] == row)
+                return;
+
+            if (size == rows.length)
+                rows = Arrays.copyOf(rows, size * 2);
+            rows[size++] = row;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(rows, size);
+        }
+    }
+}
@@ -0,0 +1,276 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A columnar store of the endpoints of a run.  Each endpoint is a row of int ids, for its path, http method, class and
+ * {@link EndpointCore}, which index into shared dictionaries.  The rows of a class are contiguous and in the order of
+ * its endpoints.
+ *
+ * The parameters are not copied into the table.  They are already shared by all the endpoints of a method through
+ * their core, and copying them would resolve the ones which are still lazy.
+ *
+ * Writers which only know about the object model can use {@link #asDescriptors()}, a read only view which creates
+ * the {@link Endpoint} of a row when it is read.
+ */
+public class EndpointTable {
+
+    public static final String MODEL_OPTION_NAME = "table";
+
+    private final List<PathNode> paths = new ArrayList<PathNode>();
+    private final Map<PathNode, Integer> pathIds = new IdentityHashMap<PathNode, Integer>();
+    private final List<String> verbs = new ArrayList<String>();
+    private final Map<String, Integer> verbIds = new HashMap<String, Integer>();
+    private final List<EndpointCore> cores = new ArrayList<EndpointCore>();
+    private final Map<EndpointCore, Integer> coreIds = new IdentityHashMap<EndpointCore, Integer>();
+
+    private final List<String> classNames = new ArrayList<String>();
+    private final List<String> qualifiedClassNames = new ArrayList<String>();
+    private final List<String> contextPaths = new ArrayList<String>();
+    private final List<String> classDescriptions = new ArrayList<String>();
+    private int[] classStarts = new int[16];
+    private int classCount = 0;
+
+    private int[] pathColumn = new int[16];
+    private int[] verbColumn = new int[16];
+    private int[] classColumn = new int[16];
+    private int[] coreColumn = new int[16];
+    private int size = 0;
+
+    public EndpointTable() {
+    }
+
+    /**
+     * Builds the table for the class descriptors.  If the descriptors are already the view of a table, that table is
+     * returned.
+     */
+    public static EndpointTable of(Collection<ClassDescriptor> classDescriptors) {
+        if (classDescriptors instanceof DescriptorView)
+            return ((DescriptorView) classDescriptors).getTable();
+
+        EndpointTable table = new EndpointTable();
+        for (ClassDescriptor classDescriptor : classDescriptors)
+            table.add(classDescriptor);
+
+        return table;
+    }
+
+    /**
+     * Adds the endpoints of a class as its rows, so the table can be filled while the descriptors are collected.
+     */
+    public void add(ClassDescriptor classDescriptor) {
+        int classId = classCount;
+        classNames.add(classDescriptor.getName());
+        qualifiedClassNames.add(classDescriptor.getQualifiedName());
+        contextPaths.add(classDescriptor.getContextPath());
+        classDescriptions.add(classDescriptor.getDescription());
+
+        for (Endpoint endpoint : classDescriptor.getEndpoints()) {
+            if (size == pathColumn.length) {
+                int capacity = size * 2;
+                pathColumn = Arrays.copyOf(pathColumn, capacity);
+                verbColumn = Arrays.copyOf(verbColumn, capacity);
+                classColumn = Arrays.copyOf(classColumn, capacity);
+                coreColumn = Arrays.copyOf(coreColumn, capacity);
+            }
+
+            pathColumn[size] = idOf(endpoint.getPathNode(), paths, pathIds);
+            verbColumn[size] = idOf(endpoint.getHttpMethod(), verbs, verbIds);
+            classColumn[size] = classId;
+            coreColumn[size] = idOf(endpoint.getCore(), cores, coreIds);
+            size++;
+        }
+
+        //The rows of a class end where the rows of the next one start, so there is one more start than classes.
+        if (classId + 1 == classStarts.length)
+            classStarts = Arrays.copyOf(classStarts, classStarts.length * 2);
+        classStarts[classId + 1] = size;
+        classCount++;
+    }
+
+    private static <T> int idOf(T value, List<T> dictionary, Map<T, Integer> ids) {
+        Integer id = ids.get(value);
+        if (id == null) {
+            id = dictionary.size();
+            dictionary.add(value);
+            ids.put(value, id);
+        }
+
+        return id;
+    }
+
+    /**
+     * Number of rows, one for each endpoint.
+     */
+    public int size() {
+        return size;
+    }
+
+    public int getPathId(int row) {
+        return pathColumn[row];
+    }
+
+    public int getVerbId(int row) {
+        return verbColumn[row];
+    }
+
+    public int getClassId(int row) {
+        return classColumn[row];
+    }
+
+    public int getCoreId(int row) {
+        return coreColumn[row];
+    }
+
+    public PathNode getPath(int pathId) {
+        return paths.get(pathId);
+    }
+
+    public String getVerb(int verbId) {
+        return verbs.get(verbId);
+    }
+
+    public EndpointCore getCore(int coreId) {
+        return cores.get(coreId);
+    }
+
+    public int getClassCount() {
+        return classCount;
+    }
+
+    /**
+     * The name the class is documented with, see {@link ClassDescriptor#getName()}.
+     */
+    public String getClassName(int classId) {
+        return classNames.get(classId);
+    }
+
+    /**
+     * The qualified name of the class, or null if it is not known.
+     */
+    public String getQualifiedClassName(int classId) {
+        return qualifiedClassNames.get(classId);
+    }
+
+    public String getContextPath(int classId) {
+        return contextPaths.get(classId);
+    }
+
+    /**
+     * The endpoint of a row.  A new instance is created on every call.
+     */
+    public Endpoint getEndpoint(int row) {
+        return new Endpoint(paths.get(pathColumn[row]), verbs.get(verbColumn[row]), cores.get(coreColumn[row]));
+    }
+
+    /**
+     * The endpoints of some of the rows, in the order of the rows.
+     *
+     * @param rows
+     * @param from first index in the rows, inclusive
+     * @param to last index in the rows, exclusive
+     */
+    public List<Endpoint> getEndpoints(final int[] rows, final int from, final int to) {
+        return new AbstractList<Endpoint>() {
+            @Override
+            public Endpoint get(int index) {
+                return getEndpoint(rows[from + index]);
+            }
+
+            @Override
+            public int size() {
+                return to - from;
+            }
+        };
+    }
+
+    /**
+     * A read only view of the table as class descriptors.
+     */
+    public Collection<ClassDescriptor> asDescriptors() {
+        return new DescriptorView(this);
+    }
+
+    /**
+     * Stable sort of rows by a key.  The keys are indexed by row and must be between zero and the key count, so the
+     * rows are sorted by counting instead of comparing.
+     *
+     * @param rows
+     * @param keys the key of each row
+     * @param keyCount
+     *
+     * @return the sorted rows, in a new array
+     */
+    public static int[] sortRows(int[] rows, int[] keys, int keyCount) {
+        int[] starts = new int[keyCount + 1];
+        for (int row : rows)
+            starts[keys[row] + 1]++;
+        for (int i = 0; i < keyCount; i++)
+            starts[i + 1] += starts[i];
+
+        int[] sorted = new int[rows.length];
+        for (int row : rows)
+            sorted[starts[keys[row]]++] = row;
+
+        return sorted;
+    }
+
+    private static class DescriptorView extends AbstractList<ClassDescriptor> {
+        private final EndpointTable table;
+
+        private DescriptorView(EndpointTable table) {
+            this.table = table;
+        }
+
+        private EndpointTable getTable() {
+            return table;
+        }
+
+        @Override
+        public ClassDescriptor get(final int classId) {
+            final int from = table.classStarts[classId];
+            final int to = table.classStarts[classId + 1];
+            Collection<Endpoint> endpoints = new AbstractList<Endpoint>() {
+                @Override
+                public Endpoint get(int index) {
+                    return table.getEndpoint(from + index);
+                }
+
+                @Override
+                public int size() {
+                    return to - from;
+                }
+            };
+
+            return new ClassDescriptor(table.classNames.get(classId), table.contextPaths.get(classId), endpoints,
+                    table.classDescriptions.get(classId), table.qualifiedClassNames.get(classId));
+        }
+
+        @Override
+        public int size() {
+            return table.classCount;
+        }
+    }
+}
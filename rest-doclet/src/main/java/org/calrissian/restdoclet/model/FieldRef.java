@@ -0,0 +1,63 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.model;
+
+import static org.calrissian.restdoclet.util.StringPool.intern;
+
+/**
+ * An immutable snapshot of a field of a {@link ClassRef}.
+ */
+public class FieldRef {
+
+    private final String name;
+    private final TypeRef type;
+    private final String description;
+    private final boolean settable;
+
+    public FieldRef(String name, TypeRef type, String description, boolean settable) {
+        this.name = intern(name);
+        this.type = type;
+        this.description = intern(description);
+        this.settable = settable;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public TypeRef getType() {
+        return type;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Whether the class has a setter for the field.
+     */
+    public boolean isSettable() {
+        return settable;
+    }
+
+    @Override
+    public String toString() {
+        return "FieldRef{" +
+                "name='" + name + '\'' +
+                ", type=" + type +
+                '}';
+    }
+}
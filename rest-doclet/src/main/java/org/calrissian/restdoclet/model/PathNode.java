@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A single segment in a trie of normalized paths.  Each distinct path is represented by exactly one node, so nodes from
+ * the same trie can be compared by identity, and paths which share a prefix share the nodes for that prefix.
+ *
+ * Nodes are created through {@link org.calrissian.restdoclet.util.PathTrie}.
+ */
+public class PathNode {
+
+    private final PathNode parent;
+    private final String segment;
+    private final int depth;
+    private final Map<String, PathNode> children = new ConcurrentHashMap<String, PathNode>();
+    private volatile String path;
+
+    private PathNode(PathNode parent, String segment) {
+        this.parent = parent;
+        this.segment = segment;
+        this.depth = (parent == null ? 0 : parent.depth + 1);
+    }
+
+    /**
+     * Creates the root of a new trie, which represents the path "/".
+     */
+    public static PathNode root() {
+        return new PathNode(null, "");
+    }
+
+    /**
+     * Finds or creates the node for the path relative to this node.  Empty segments are skipped, so the relative path
+     * does not need to be normalized.
+     */
+    public PathNode resolve(String relativePath) {
+        return walk(relativePath, true);
+    }
+
+    /**
+     * Finds the node for the path relative to this node, without creating any node.
+     *
+     * @return the node, or null if there is none for the path.
+     */
+    public PathNode find(String relativePath) {
+        return walk(relativePath, false);
+    }
+
+    private PathNode walk(String relativePath, boolean create) {
+        PathNode node = this;
+        if (relativePath == null) {
+            return node;
+        }
+
+        int start = 0;
+        int length = relativePath.length();
+        while (start < length) {
+            int end = relativePath.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+
+            if (end > start) {
+                String segment = relativePath.substring(start, end);
+                node = (create ? node.child(segment) : node.children.get(segment));
+                if (node == null) {
+                    return null;
+                }
+            }
+            start = end + 1;
+        }
+
+        return node;
+    }
+
+    private PathNode child(String segment) {
+        PathNode child = children.get(segment);
+        if (child == null) {
+            child = children.computeIfAbsent(segment.intern(), s -> new PathNode(this, s));
+        }
+
+        return child;
+    }
+
+    public PathNode getParent() {
+        return parent;
+    }
+
+    public String getSegment() {
+        return segment;
+    }
+
+    /**
+     * Number of segments in the path.  The root has a depth of zero.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * The ancestor of this node at the given depth, or this node if it is not deeper than the depth.
+     */
+    public PathNode getAncestor(int depth) {
+        PathNode node = this;
+        while (node.depth > depth) {
+            node = node.parent;
+        }
+
+        return node;
+    }
+
+    /**
+     * Whether the other node is this node or one of its ancestors.
+     */
+    public boolean startsWith(PathNode other) {
+        return other.depth <= depth && getAncestor(other.depth) == other;
+    }
+
+    /**
+     * The normalized path for this node.  It is built once and shared by everything which refers to the node.
+     */
+    public String getPath() {
+        String result = path;
+        if (result == null) {
+            result = (parent == null ? "/" : (parent.parent == null ? "" : parent.getPath()) + "/" + segment);
+            path = result;
+        }
+
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return getPath();
+    }
+}
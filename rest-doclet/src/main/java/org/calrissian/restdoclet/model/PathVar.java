@@ -15,17 +15,17 @@
  *******************************************************************************/
 package org.calrissian.restdoclet.model;
 
-import com.sun.javadoc.Type;
+import static org.calrissian.restdoclet.util.StringPool.intern;
 
 public class PathVar {
 
     private final String name;
     private final String description;
-    private final Type type;
+    private final TypeRef type;
 
-    public PathVar(String name, String description, Type type) {
-        this.name = name;
-        this.description = description;
+    public PathVar(String name, String description, TypeRef type) {
+        this.name = intern(name);
+        this.description = intern(description);
         this.type = type;
     }
 
@@ -37,7 +37,7 @@ public class PathVar {
         return description;
     }
 
-    public Type getType() {
+    public TypeRef getType() {
         return type;
     }
 
@@ -15,19 +15,19 @@
  *******************************************************************************/
 package org.calrissian.restdoclet.model;
 
-import com.sun.javadoc.Type;
+import static org.calrissian.restdoclet.util.StringPool.intern;
 
 public class QueryParam {
 
     private final String name;
     private final boolean required;
     private final String description;
-    private final Type type;
+    private final TypeRef type;
 
-    public QueryParam(String name, boolean required, String description, Type type) {
-        this.name = name;
+    public QueryParam(String name, boolean required, String description, TypeRef type) {
+        this.name = intern(name);
         this.required = required;
-        this.description = description;
+        this.description = intern(description);
         this.type = type;
     }
 
@@ -43,7 +43,7 @@ public class QueryParam {
         return description;
     }
 
-    public Type getType() {
+    public TypeRef getType() {
         return type;
     }
 
@@ -15,18 +15,17 @@
  *******************************************************************************/
 package org.calrissian.restdoclet.model;
 
-
-import com.sun.javadoc.Type;
+import static org.calrissian.restdoclet.util.StringPool.intern;
 
 public class RequestBody {
 
     private final String name;
     private final String description;
-    private final Type type;
+    private final TypeRef type;
 
-    public RequestBody(String name, String description, Type type) {
-        this.name = name;
-        this.description = description;
+    public RequestBody(String name, String description, TypeRef type) {
+        this.name = intern(name);
+        this.description = intern(description);
         this.type = type;
     }
 
@@ -38,7 +37,7 @@ public class RequestBody {
         return description;
     }
 
-    public Type getType() {
+    public TypeRef getType() {
         return type;
     }
 
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.model;
+
+import java.util.Collections;
+import java.util.List;
+
+import static java.util.Collections.unmodifiableList;
+import static org.calrissian.restdoclet.util.StringPool.intern;
+
+/**
+ * An immutable snapshot of a use of a type, like the type of a parameter or field.  The writers describe types from
+ * these snapshots, so nothing from javadoc is needed once the endpoints have been collected.
+ *
+ * Everything which belongs to the class itself, like its fields and enum constants, is held by a {@link ClassRef}
+ * which is shared by every use of the class.
+ */
+public class TypeRef {
+
+    public enum Kind {
+        PRIMITIVE,
+        CLASS,
+
+        /**
+         * A type variable declared by a class, which a subclass can bind to a type.  Type variables declared by a
+         * method can not be bound, so they are kept as the class they erase to.
+         */
+        TYPE_VARIABLE
+    }
+
+    private final Kind kind;
+    private final String qualifiedName;
+    private final String simpleName;
+    private final String dimension;
+    private final List<TypeRef> typeArguments;
+    private final ClassRef classRef;
+
+    /**
+     * @param kind
+     * @param qualifiedName
+     * @param simpleName
+     * @param dimension the array dimension, like "[]", or empty if the type is not an array
+     * @param typeArguments
+     * @param classRef the class of the type, or its erasure for a type variable, or null for a primitive
+     */
+    public TypeRef(Kind kind, String qualifiedName, String simpleName, String dimension, List<TypeRef> typeArguments,
+                   ClassRef classRef) {
+        this.kind = kind;
+        this.qualifiedName = intern(qualifiedName);
+        this.simpleName = intern(simpleName);
+        this.dimension = (dimension == null ? "" : intern(dimension));
+        this.typeArguments = (typeArguments == null || typeArguments.isEmpty() ? Collections.<TypeRef>emptyList() :
+                unmodifiableList(typeArguments));
+        this.classRef = classRef;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public boolean isPrimitive() {
+        return kind == Kind.PRIMITIVE;
+    }
+
+    public String getQualifiedName() {
+        return qualifiedName;
+    }
+
+    public String getSimpleName() {
+        return simpleName;
+    }
+
+    public String getDimension() {
+        return dimension;
+    }
+
+    public boolean isArray() {
+        return !dimension.isEmpty();
+    }
+
+    /**
+     * The type arguments, or an empty list if the type is not parameterized.
+     */
+    public List<TypeRef> getTypeArguments() {
+        return typeArguments;
+    }
+
+    public ClassRef getClassRef() {
+        return classRef;
+    }
+
+    /**
+     * The same type with different type arguments.
+     */
+    public TypeRef withTypeArguments(List<TypeRef> typeArguments) {
+        return new TypeRef(kind, qualifiedName, simpleName, dimension, typeArguments, classRef);
+    }
+
+    /**
+     * The same type with a different array dimension.
+     */
+    public TypeRef withDimension(String dimension) {
+        return new TypeRef(kind, qualifiedName, simpleName, dimension, typeArguments, classRef);
+    }
+
+    @Override
+    public String toString() {
+        if (typeArguments.isEmpty())
+            return qualifiedName + dimension;
+
+        StringBuilder sb = new StringBuilder(qualifiedName).append('<');
+        for (int i = 0; i < typeArguments.size(); i++) {
+            if (i > 0)
+                sb.append(',');
+            sb.append(typeArguments.get(i));
+        }
+
+        return sb.append('>').append(dimension).toString();
+    }
+}
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.util;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.unmodifiableCollection;
+
+/**
+ * The annotations present on a single element, keyed by their interned qualified name, with all their element values
+ * already resolved.  Annotations whose type could not be resolved are only counted.
+ *
+ * Instances are built once per element by {@link AnnotationUtils#getAnnotationIndex}.
+ */
+public class AnnotationIndex {
+
+    private final Map<String, Map<String, List<String>>> annotations;
+    private final int unresolved;
+
+    AnnotationIndex(Map<String, Map<String, List<String>>> annotations, int unresolved) {
+        this.annotations = annotations;
+        this.unresolved = unresolved;
+    }
+
+    /**
+     * Whether the element has no annotations at all, including unresolved ones.
+     */
+    public boolean isEmpty() {
+        return annotations.isEmpty() && unresolved == 0;
+    }
+
+    public boolean contains(String annotationName) {
+        return annotations.containsKey(annotationName);
+    }
+
+    /**
+     * The qualified names of the resolved annotations in declaration order.
+     */
+    public Collection<String> getNames() {
+        return unmodifiableCollection(annotations.keySet());
+    }
+
+    /**
+     * The values of a single element of an annotation.  If the annotation is not present or the element was not
+     * specified then an empty list is returned.
+     */
+    public List<String> getElementValue(String annotationName, String key) {
+        Map<String, List<String>> values = annotations.get(annotationName);
+        if (values == null)
+            return emptyList();
+
+        List<String> value = values.get(key);
+        return (value == null ? emptyList() : value);
+    }
+
+    public Map<String, List<String>> getElementValues(String annotationName) {
+        Map<String, List<String>> values = annotations.get(annotationName);
+        return (values == null ? emptyMap() : values);
+    }
+
+    /**
+     * Combines this index with the annotations inherited from a supertype or an overridden method.  Annotations present
+     * in this index take precedence over inherited annotations of the same type.
+     */
+    AnnotationIndex merge(AnnotationIndex inherited) {
+        if (inherited.isEmpty())
+            return this;
+        if (isEmpty())
+            return inherited;
+
+        Map<String, Map<String, List<String>>> merged = new LinkedHashMap<String, Map<String, List<String>>>(annotations);
+        for (Map.Entry<String, Map<String, List<String>>> entry : inherited.annotations.entrySet())
+            if (!merged.containsKey(entry.getKey()))
+                merged.put(entry.getKey(), entry.getValue());
+
+        return new AnnotationIndex(merged, unresolved + inherited.unresolved);
+    }
+
+    public int getUnresolvedCount() {
+        return unresolved;
+    }
+}
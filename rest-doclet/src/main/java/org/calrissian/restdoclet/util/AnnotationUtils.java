@@ -17,31 +17,319 @@ package org.calrissian.restdoclet.util;
 
 
 import com.sun.javadoc.AnnotationDesc;
+import com.sun.javadoc.AnnotationTypeDoc;
+import com.sun.javadoc.AnnotationTypeElementDoc;
 import com.sun.javadoc.AnnotationValue;
+import com.sun.javadoc.ClassDoc;
+import com.sun.javadoc.MethodDoc;
+import com.sun.javadoc.Parameter;
+import com.sun.javadoc.ProgramElementDoc;
 
+import java.lang.annotation.Annotation;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+import static org.calrissian.restdoclet.util.CommonUtils.isEmpty;
+import static org.calrissian.restdoclet.util.DocUtils.getInterfaces;
+import static org.calrissian.restdoclet.util.DocUtils.getOverriddenMethods;
+import static org.calrissian.restdoclet.util.DocUtils.getParameters;
+import static org.calrissian.restdoclet.util.DocUtils.getSuperclass;
 
+/**
+ * Resolution of the annotations present on an element.
+ *
+ * Annotations are expanded to include their meta-annotations, so an element annotated with a composed annotation such
+ * as Spring's {@code @GetMapping} also reports the {@code @RequestMapping} it is annotated with.  Attributes of the
+ * composed annotation which are marked with {@link #ALIAS_FOR_ANNOTATION} override the attribute they are an alias for.
+ * The meta-annotations of each annotation type are only expanded once per run.
+ */
 public class AnnotationUtils {
 
-    public static String getAnnotationName(AnnotationDesc annotation) {
-        try{
-            return annotation.annotationType().toString();
-        } catch (ClassCastException e)
-        {
-            return null;
+    public static final String ALIAS_FOR_ANNOTATION = "org.springframework.core.annotation.AliasFor";
+
+    //Annotations like @Documented or @Target are on nearly every annotation and are never interesting.
+    private static final String JAVA_ANNOTATION_PACKAGE = "java.lang.annotation.";
+
+    private static final DocCache<ProgramElementDoc, AnnotationDesc[]> annotations =
+            DocCache.of(ProgramElementDoc::annotations);
+    private static final DocCache<Parameter, AnnotationDesc[]> parameterAnnotations =
+            DocCache.of(Parameter::annotations);
+    private static final DocCache<ProgramElementDoc, AnnotationIndex> indexes =
+            DocCache.of(doc -> buildIndex(getAnnotations(doc)));
+    private static final DocCache<Parameter, AnnotationIndex> parameterIndexes =
+            DocCache.of(parameter -> buildIndex(getAnnotations(parameter)));
+    private static final DocCache<ProgramElementDoc, AnnotationIndex> mergedIndexes =
+            DocCache.of(AnnotationUtils::buildMergedIndex);
+    private static final DocCache<ClassDoc, AnnotationIndex> interfaceMergedIndexes =
+            DocCache.of(AnnotationUtils::buildInterfaceMergedIndex);
+    private static final DocCache<MethodDoc, AnnotationIndex[]> mergedParameterIndexes =
+            DocCache.of(AnnotationUtils::buildMergedParameterIndexes);
+    private static final DocCache<AnnotationTypeDoc, List<Alias>> aliases =
+            DocCache.of(AnnotationUtils::resolveAliases);
+    private static final DocCache<AnnotationTypeDoc, List<MetaAnnotation>> metaAnnotations =
+            DocCache.of(AnnotationUtils::resolveMetaAnnotations);
+
+    private static final AnnotationIndex EMPTY_INDEX =
+            new AnnotationIndex(Collections.<String, Map<String, List<String>>>emptyMap(), 0);
+
+    public static AnnotationDesc[] getAnnotations(ProgramElementDoc doc) {
+        return annotations.get(doc);
+    }
+
+    public static AnnotationDesc[] getAnnotations(Parameter parameter) {
+        return parameterAnnotations.get(parameter);
+    }
+
+    /**
+     * The annotations on the element, including the meta-annotations of each of them.
+     */
+    public static AnnotationIndex getAnnotationIndex(ProgramElementDoc doc) {
+        return indexes.get(doc);
+    }
+
+    /**
+     * The annotations on the parameter, including the meta-annotations of each of them.
+     */
+    public static AnnotationIndex getAnnotationIndex(Parameter parameter) {
+        return parameterIndexes.get(parameter);
+    }
+
+    /**
+     * The annotations on the element combined with the ones it inherits.  A class inherits the annotations of its
+     * superclasses and interfaces, and a method inherits the annotations of the methods it overrides or implements.
+     * The annotations declared nearest to the element take precedence, and superclasses take precedence over
+     * interfaces.
+     */
+    public static AnnotationIndex getMergedAnnotationIndex(ProgramElementDoc doc) {
+        return mergedIndexes.get(doc);
+    }
+
+    /**
+     * The annotations on the class combined with the ones of the interfaces it implements, but not the ones of its
+     * superclasses.  This is how frameworks like JAX-RS inherit class annotations.
+     */
+    public static AnnotationIndex getInterfaceMergedAnnotationIndex(ClassDoc classDoc) {
+        return interfaceMergedIndexes.get(classDoc);
+    }
+
+    /**
+     * The annotations on a parameter of the method combined with the ones on the same parameter of the methods it
+     * overrides or implements.
+     *
+     * @param method
+     * @param position the index of the parameter in {@link DocUtils#getParameters}
+     */
+    public static AnnotationIndex getMergedAnnotationIndex(MethodDoc method, int position) {
+        return mergedParameterIndexes.get(method)[position];
+    }
+
+    private static AnnotationIndex buildMergedIndex(ProgramElementDoc doc) {
+        AnnotationIndex index = getAnnotationIndex(doc);
+
+        if (doc instanceof ClassDoc) {
+            //Every supertype has its own merged index, so shared interfaces are only merged once.
+            ClassDoc superclass = getSuperclass((ClassDoc) doc);
+            if (superclass != null)
+                index = index.merge(getMergedAnnotationIndex(superclass));
+            for (ClassDoc iface : getInterfaces((ClassDoc) doc))
+                index = index.merge(getMergedAnnotationIndex(iface));
+
+        } else if (doc instanceof MethodDoc) {
+            for (MethodDoc overridden : getOverriddenMethods((MethodDoc) doc))
+                index = index.merge(getAnnotationIndex(overridden));
         }
+
+        return index;
     }
 
-    public static List<String> getElementValue(AnnotationDesc annotation, String key) {
+    private static AnnotationIndex buildInterfaceMergedIndex(ClassDoc classDoc) {
+        AnnotationIndex index = getAnnotationIndex(classDoc);
+        for (ClassDoc iface : getInterfaces(classDoc))
+            index = index.merge(getMergedAnnotationIndex(iface));
+
+        return index;
+    }
+
+    private static AnnotationIndex[] buildMergedParameterIndexes(MethodDoc method) {
+        Parameter[] parameters = getParameters(method);
+        AnnotationIndex[] result = new AnnotationIndex[parameters.length];
+        for (int i = 0; i < parameters.length; i++)
+            result[i] = getAnnotationIndex(parameters[i]);
+
+        for (MethodDoc overridden : getOverriddenMethods(method)) {
+            Parameter[] inherited = getParameters(overridden);
+            for (int i = 0; i < result.length && i < inherited.length; i++)
+                result[i] = result[i].merge(getAnnotationIndex(inherited[i]));
+        }
+
+        return result;
+    }
+
+    /**
+     * Resolves the name and element values of every annotation once.  Annotations whose type is not on the classpath
+     * are counted instead of being looked up again on every access.
+     *
+     * The annotations present directly on the element always take precedence over any meta-annotation of the same
+     * type.
+     */
+    private static AnnotationIndex buildIndex(AnnotationDesc[] annotations) {
+        if (isEmpty(annotations))
+            return EMPTY_INDEX;
+
+        Map<String, Map<String, List<String>>> resolved = new LinkedHashMap<String, Map<String, List<String>>>();
+        List<AnnotationTypeDoc> types = new ArrayList<AnnotationTypeDoc>();
+        List<Map<String, List<String>>> typeValues = new ArrayList<Map<String, List<String>>>();
+        int unresolved = 0;
+        for (AnnotationDesc annotation : annotations) {
+            AnnotationTypeDoc type = getAnnotationType(annotation);
+            if (type == null) {
+                unresolved++;
+                continue;
+            }
+
+            Map<String, List<String>> values = getValues(annotation);
+            for (Alias alias : aliases.get(type))
+                if (alias.isLocal() && !values.containsKey(alias.target) && values.containsKey(alias.source))
+                    values.put(alias.target, values.get(alias.source));
+
+            resolved.put(type.qualifiedName().intern(), values);
+            types.add(type);
+            typeValues.add(values);
+        }
+
+        for (int i = 0; i < types.size(); i++) {
+            for (MetaAnnotation meta : metaAnnotations.get(types.get(i)))
+                if (!resolved.containsKey(meta.name))
+                    resolved.put(meta.name, meta.bind(typeValues.get(i)));
+        }
+
+        return new AnnotationIndex(resolved, unresolved);
+    }
+
+    /**
+     * Expands the meta-annotations of an annotation type, breadth first so that the nearest declaration of a
+     * meta-annotation wins.  Each meta-annotation records its declared values and which attributes of the root
+     * annotation override them.
+     */
+    private static List<MetaAnnotation> resolveMetaAnnotations(AnnotationTypeDoc root) {
+        List<MetaAnnotation> result = new ArrayList<MetaAnnotation>();
+        Set<String> visited = new HashSet<String>();
+        visited.add(root.qualifiedName());
+
+        Deque<MetaAnnotation> queue = new ArrayDeque<MetaAnnotation>();
+        queue.add(new MetaAnnotation(root, null));
+        while (!queue.isEmpty()) {
+            MetaAnnotation parent = queue.poll();
+            for (AnnotationDesc annotation : getAnnotations(parent.type)) {
+                AnnotationTypeDoc type = getAnnotationType(annotation);
+                if (type == null || type.qualifiedName().startsWith(JAVA_ANNOTATION_PACKAGE) ||
+                        !visited.add(type.qualifiedName()))
+                    continue;
+
+                MetaAnnotation meta = new MetaAnnotation(type, getValues(annotation));
+                for (Alias alias : aliases.get(parent.type)) {
+                    if (alias.annotation.equals(meta.name)) {
+                        meta.addSources(alias.target, parent.getSources(alias.source));
+                        if (parent.values.containsKey(alias.source))
+                            meta.values.put(alias.target, parent.values.get(alias.source));
+                    }
+                }
+                for (Alias alias : aliases.get(type)) {
+                    if (alias.isLocal()) {
+                        meta.addSources(alias.target, meta.getSources(alias.source));
+                        if (!meta.values.containsKey(alias.target) && meta.values.containsKey(alias.source))
+                            meta.values.put(alias.target, meta.values.get(alias.source));
+                    }
+                }
+
+                result.add(meta);
+                queue.add(meta);
+            }
+        }
+
+        return unmodifiableList(result);
+    }
+
+    /**
+     * Reads the {@link #ALIAS_FOR_ANNOTATION} declarations on the attributes of an annotation type.
+     */
+    private static List<Alias> resolveAliases(AnnotationTypeDoc type) {
+        List<Alias> result = new ArrayList<Alias>();
+        for (AnnotationTypeElementDoc element : type.elements()) {
+            for (AnnotationDesc annotation : getAnnotations(element)) {
+                if (!ALIAS_FOR_ANNOTATION.equals(getAnnotationName(annotation)))
+                    continue;
+
+                Map<String, List<String>> values = getValues(annotation);
+                String target = first(values.get("attribute"), first(values.get("value"), element.name()));
+                String annotationName = first(values.get("annotation"), type.qualifiedName());
+
+                //An annotation of Annotation.class is the default, which means the declaring annotation.
+                if (Annotation.class.getName().equals(annotationName))
+                    annotationName = type.qualifiedName();
+
+                result.add(new Alias(type.qualifiedName(), element.name(), annotationName, target));
+            }
+        }
+
+        return (result.isEmpty() ? Collections.<Alias>emptyList() : unmodifiableList(result));
+    }
+
+    private static String first(List<String> values, String defaultValue) {
+        return (isEmpty(values) || isEmpty(values.get(0)) ? defaultValue : values.get(0));
+    }
+
+    private static Map<String, List<String>> getValues(AnnotationDesc annotation) {
+        Map<String, List<String>> values = new HashMap<String, List<String>>();
         for (AnnotationDesc.ElementValuePair element : annotation.elementValues())
-            if (element.element().name().equals(key)) {
-                return resolveAnnotationValue(element.value());
+            values.put(element.element().name().intern(), unmodifiableList(resolveAnnotationValue(element.value())));
+
+        return values;
+    }
+
+    /**
+     * The type of the annotation, or null if it can not be resolved, like an annotation missing from the classpath.
+     */
+    public static AnnotationTypeDoc getAnnotationType(AnnotationDesc annotation) {
+        return DocCache.read(() -> {
+            try {
+                return annotation.annotationType();
+            } catch (ClassCastException e) {
+                return null;
+            }
+        });
+    }
+
+    public static String getAnnotationName(AnnotationDesc annotation) {
+        return DocCache.read(() -> {
+            try{
+                return annotation.annotationType().toString();
+            } catch (ClassCastException e)
+            {
+                return null;
             }
+        });
+    }
+
+    public static List<String> getElementValue(AnnotationDesc annotation, String key) {
+        return DocCache.read(() -> {
+            for (AnnotationDesc.ElementValuePair element : annotation.elementValues())
+                if (element.element().name().equals(key)) {
+                    return resolveAnnotationValue(element.value());
+                }
 
-        return emptyList();
+            return emptyList();
+        });
     }
 
     private static List<String> resolveAnnotationValue(AnnotationValue value) {
@@ -60,4 +348,90 @@ public class AnnotationUtils {
         return retVal;
     }
 
+    /**
+     * An attribute of an annotation which is an alias for an attribute of either the same annotation or one of its
+     * meta-annotations.
+     */
+    private static class Alias {
+        private final String declaringAnnotation;
+        private final String source;
+        private final String annotation;
+        private final String target;
+
+        private Alias(String declaringAnnotation, String source, String annotation, String target) {
+            this.declaringAnnotation = declaringAnnotation;
+            this.source = source.intern();
+            this.annotation = annotation;
+            this.target = target.intern();
+        }
+
+        private boolean isLocal() {
+            return declaringAnnotation.equals(annotation);
+        }
+    }
+
+    /**
+     * A meta-annotation of a root annotation type.  The values are the ones declared on the meta-annotation and the
+     * bindings map each of its attributes to the attributes of the root annotation which override it, in order of
+     * precedence.
+     */
+    private static class MetaAnnotation {
+        private final AnnotationTypeDoc type;
+        private final String name;
+        private final Map<String, List<String>> values;
+        private final Map<String, List<String>> bindings = new HashMap<String, List<String>>();
+        private final boolean root;
+
+        private MetaAnnotation(AnnotationTypeDoc type, Map<String, List<String>> values) {
+            this.type = type;
+            this.name = type.qualifiedName().intern();
+            this.root = (values == null);
+            this.values = (values == null ? new HashMap<String, List<String>>() : values);
+        }
+
+        /**
+         * The root attributes which override the attribute, the root annotation overrides its own attributes.
+         */
+        private List<String> getSources(String attribute) {
+            if (root)
+                return Collections.singletonList(attribute);
+
+            List<String> sources = bindings.get(attribute);
+            return (sources == null ? Collections.<String>emptyList() : sources);
+        }
+
+        private void addSources(String attribute, List<String> sources) {
+            if (sources.isEmpty())
+                return;
+
+            List<String> current = bindings.get(attribute);
+            if (current == null) {
+                current = new ArrayList<String>();
+                bindings.put(attribute, current);
+            }
+            for (String source : sources)
+                if (!current.contains(source))
+                    current.add(source);
+        }
+
+        /**
+         * The values of this meta-annotation for a single use of the root annotation.
+         */
+        private Map<String, List<String>> bind(Map<String, List<String>> rootValues) {
+            if (bindings.isEmpty())
+                return values;
+
+            Map<String, List<String>> bound = new HashMap<String, List<String>>(values);
+            for (Map.Entry<String, List<String>> binding : bindings.entrySet()) {
+                for (String source : binding.getValue()) {
+                    if (rootValues.containsKey(source)) {
+                        bound.put(binding.getKey(), rootValues.get(source));
+                        break;
+                    }
+                }
+            }
+
+            return bound;
+        }
+    }
 }
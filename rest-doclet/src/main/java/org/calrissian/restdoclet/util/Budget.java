@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.util;
+
+/**
+ * A time and depth limit for a single unit of work, like describing one class or expanding one type.
+ *
+ * The budget is bound to the current thread between {@link #start} and {@link #end}.  The javadoc model can not be
+ * interrupted safely, so the limits are enforced cooperatively: recursive code calls {@link #enter()} and
+ * {@link #exit()} around each level, and long loops call {@link #check()}.  Once a limit is exceeded these throw a
+ * {@link BudgetExceededException}, which the owner of the unit catches to abandon it and move on.
+ *
+ * When no budget is started on the thread all the checkpoints do nothing.
+ */
+public class Budget {
+
+    private static final ThreadLocal<Budget> current = new ThreadLocal<Budget>();
+
+    private final Budget parent;
+    private final String unit;
+    private final long deadline;
+    private final int maxDepth;
+    private int depth = 0;
+
+    private Budget(Budget parent, String unit, long timeMillis, int maxDepth) {
+        this.parent = parent;
+        this.unit = unit;
+        this.deadline = (timeMillis > 0 ? System.nanoTime() + timeMillis * 1000000L : Long.MAX_VALUE);
+        this.maxDepth = (maxDepth > 0 ? maxDepth : Integer.MAX_VALUE);
+    }
+
+    /**
+     * Starts a budget for a unit of work on the current thread.  A budget which is already started is suspended until
+     * this one ends.
+     *
+     * @param unit description of the unit used in the messages
+     * @param timeMillis time allowed for the unit, or zero for no limit
+     * @param maxDepth levels of recursion allowed for the unit, or zero for no limit
+     */
+    public static Budget start(String unit, long timeMillis, int maxDepth) {
+        Budget budget = new Budget(current.get(), unit, timeMillis, maxDepth);
+        current.set(budget);
+        return budget;
+    }
+
+    /**
+     * Ends the budget of the current unit, and resumes the budget it suspended if there is one.
+     */
+    public static void end() {
+        Budget budget = current.get();
+        if (budget == null)
+            return;
+
+        if (budget.parent == null)
+            current.remove();
+        else
+            current.set(budget.parent);
+    }
+
+    /**
+     * Fails if the current unit has run out of time.
+     */
+    public static void check() {
+        Budget budget = current.get();
+        if (budget != null)
+            budget.checkTime();
+    }
+
+    /**
+     * Enters a level of recursion, failing if the current unit has run out of depth or time.
+     */
+    public static void enter() {
+        Budget budget = current.get();
+        if (budget == null)
+            return;
+
+        if (++budget.depth > budget.maxDepth) {
+            budget.depth--;
+            throw new BudgetExceededException(budget.unit + " exceeded the depth limit of " + budget.maxDepth);
+        }
+        budget.checkTime();
+    }
+
+    /**
+     * Leaves a level of recursion entered with {@link #enter()}.
+     */
+    public static void exit() {
+        Budget budget = current.get();
+        if (budget != null && budget.depth > 0)
+            budget.depth--;
+    }
+
+    private void checkTime() {
+        if (System.nanoTime() > deadline)
+            throw new BudgetExceededException(unit + " exceeded the time limit");
+    }
+}
@@ -15,10 +15,15 @@
  *******************************************************************************/
 package org.calrissian.restdoclet.util;
 
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
 import java.util.Collection;
 
 import static java.util.Collections.emptySet;
@@ -64,6 +69,7 @@ public class CommonUtils {
 
     }
 
+    @SafeVarargs
     public static <T> Collection<T> firstNonEmpty(Collection<T>... collections) {
         for (Collection<T> collection : collections) {
             if (!isEmpty(collection)) {
@@ -83,26 +89,78 @@ public class CommonUtils {
         }
     }
 
+    public static byte[] toByteArray(InputStream input) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        copy(input, output);
+        return output.toByteArray();
+    }
+
+    /**
+     * Writes the content to the file, unless the file already holds exactly that content.  Unchanged output keeps its
+     * modification time, so tools watching the output only see the files which really changed.
+     *
+     * @return whether the file was written
+     */
+    public static boolean writeIfChanged(File file, byte[] content) throws IOException {
+        if (file.isFile() && file.length() == content.length && Arrays.equals(Files.readAllBytes(file.toPath()), content))
+            return false;
+
+        OutputStream out = null;
+        try {
+            out = new FileOutputStream(file);
+            out.write(content);
+        } finally {
+            close(out);
+        }
+
+        return true;
+    }
+
+    /**
+     * Normalizes a path so that it starts with a single separator, contains no duplicate separators and does not end
+     * with a separator.  Paths which are already normalized are returned as is.
+     */
     public static String fixPath(String path) {
         if (isEmpty(path)) {
             return "/";
         }
 
-        //remove duplicates path seperators
-        int len = 0;
-        while (path.length() != len) {
-            len = path.length();
-            path = path.replaceAll("//", "/");
+        if (isNormalPath(path)) {
+            return path;
+        }
+
+        StringBuilder sb = new StringBuilder(path.length() + 1);
+        sb.append('/');
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            //remove duplicates path seperators
+            if (c != '/' || sb.charAt(sb.length() - 1) != '/') {
+                sb.append(c);
+            }
+        }
+
+        if (sb.length() > 1 && sb.charAt(sb.length() - 1) == '/') {
+            sb.setLength(sb.length() - 1);
+        }
+
+        return sb.toString();
+    }
+
+    private static boolean isNormalPath(String path) {
+        if (path.charAt(0) != '/') {
+            return false;
         }
 
-        if (path.length() > 1 && path.endsWith("/")) {
-            path = path.substring(0, path.length() - 2);
+        if (path.length() > 1 && path.charAt(path.length() - 1) == '/') {
+            return false;
         }
 
-        if (!path.startsWith("/")) {
-            path = "/" + path;
+        for (int i = 1; i < path.length(); i++) {
+            if (path.charAt(i) == '/' && path.charAt(i - 1) == '/') {
+                return false;
+            }
         }
 
-        return path;
+        return true;
     }
 }
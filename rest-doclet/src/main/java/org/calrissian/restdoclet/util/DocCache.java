@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Run scoped memoization of values derived from the javadoc model.
+ *
+ * The javadoc implementation builds new arrays (and often new objects) on every call, so anything that is read more
+ * than once during a run should be read through one of these caches.  The javadoc objects do not override equals, so
+ * keys are effectively compared by identity.  Every cache is registered on creation and emptied by {@link #clearAll()}
+ * at the end of each run.  The registration is weak, so the caches of objects created for a single run, like the
+ * collectors, go away with them.
+ *
+ * The javadoc model is not thread safe, so values are always loaded while holding a single run wide lock.  Reads of
+ * values which are already cached do not lock, which lets collection run in parallel once the model has been read.
+ * Any other access to the javadoc model made while collecting should be wrapped in {@link #read(Supplier)}.
+ *
+ * Values which are only built from other cached values, like the endpoint templates of a class, are held in
+ * {@link #derived} caches instead.  Those are loaded without the lock, so building them runs in parallel.  Values which
+ * can only be cached some of the time are held in {@link #stored} caches, which have no loader.
+ */
+public class DocCache<K, V> {
+
+    private static final Object NULL = new Object();
+    private static final Object LOCK = new Object();
+    private static final Set<DocCache<?, ?>> caches =
+            Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<DocCache<?, ?>, Boolean>()));
+
+    private final Map<K, Object> values = new ConcurrentHashMap<K, Object>();
+    private final Function<K, V> loader;
+    private final boolean locked;
+
+    private DocCache(Function<K, V> loader, boolean locked) {
+        this.loader = loader;
+        this.locked = locked;
+    }
+
+    public static <K, V> DocCache<K, V> of(Function<K, V> loader) {
+        return register(new DocCache<K, V>(loader, true));
+    }
+
+    /**
+     * A cache whose loader does not read the javadoc model itself, but only through other caches and
+     * {@link #read(Supplier)}.  Values are loaded without holding the javadoc lock.  When two threads load the same
+     * value at once, the first one stored is kept and returned to both.
+     */
+    public static <K, V> DocCache<K, V> derived(Function<K, V> loader) {
+        return register(new DocCache<K, V>(loader, false));
+    }
+
+    /**
+     * A cache without a loader.  Values are only cached by {@link #putIfAbsent(Object, Object)} and read with
+     * {@link #getIfPresent(Object)}, so the caller decides which of the values it builds are kept.  Like the values of
+     * a derived cache, they must not read the javadoc model other than through other caches.
+     */
+    public static <K, V> DocCache<K, V> stored() {
+        return register(new DocCache<K, V>(null, false));
+    }
+
+    private static <K, V> DocCache<K, V> register(DocCache<K, V> cache) {
+        caches.add(cache);
+        return cache;
+    }
+
+    /**
+     * Performs an uncached read of the javadoc model while holding the javadoc lock.
+     */
+    public static <T> T read(Supplier<T> reader) {
+        synchronized (LOCK) {
+            return reader.get();
+        }
+    }
+
+    /**
+     * Clears the values of every registered cache.
+     */
+    public static void clearAll() {
+        List<DocCache<?, ?>> registered;
+        synchronized (caches) {
+            registered = new ArrayList<DocCache<?, ?>>(caches);
+        }
+
+        for (DocCache<?, ?> cache : registered)
+            cache.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        Object value = values.get(key);
+        if (value == null && !locked) {
+            V loaded = loader.apply(key);
+            Object existing = values.putIfAbsent(key, (loaded == null ? NULL : loaded));
+            value = (existing == null ? (loaded == null ? NULL : loaded) : existing);
+        } else if (value == null) {
+            synchronized (LOCK) {
+                value = values.get(key);
+                if (value == null) {
+                    value = loader.apply(key);
+                    values.put(key, (value == null ? NULL : value));
+                }
+            }
+        }
+
+        return (value == NULL ? null : (V) value);
+    }
+
+    /**
+     * The value cached for the key, or null if none is.
+     */
+    @SuppressWarnings("unchecked")
+    public V getIfPresent(K key) {
+        Object value = values.get(key);
+        return (value == NULL ? null : (V) value);
+    }
+
+    /**
+     * Caches the value unless one is already cached for the key.
+     *
+     * @return the value cached for the key, which is the given value unless another one was cached first.
+     */
+    @SuppressWarnings("unchecked")
+    public V putIfAbsent(K key, V value) {
+        Object existing = values.putIfAbsent(key, (value == null ? NULL : value));
+        if (existing == null)
+            return value;
+
+        return (existing == NULL ? null : (V) existing);
+    }
+
+    public void clear() {
+        values.clear();
+    }
+}
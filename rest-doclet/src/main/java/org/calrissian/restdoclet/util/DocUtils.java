@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.util;
+
+import com.sun.javadoc.ClassDoc;
+import com.sun.javadoc.Doc;
+import com.sun.javadoc.ExecutableMemberDoc;
+import com.sun.javadoc.MethodDoc;
+import com.sun.javadoc.Parameter;
+import com.sun.javadoc.ProgramElementDoc;
+import com.sun.javadoc.Type;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Memoized access to the parts of the javadoc model which are read by more than one collector or more than once per
+ * class.
+ */
+public class DocUtils {
+
+    private static final DocCache<ClassDoc, String> qualifiedNames = DocCache.of(ClassDoc::qualifiedName);
+    private static final DocCache<ClassDoc, MethodDoc[]> methods = DocCache.of(classDoc -> classDoc.methods(false));
+    private static final DocCache<ClassDoc, ClassDoc> superclasses = DocCache.of(ClassDoc::superclass);
+    private static final DocCache<ClassDoc, Type> superclassTypes = DocCache.of(ClassDoc::superclassType);
+    private static final DocCache<ClassDoc, ClassDoc[]> interfaces = DocCache.of(ClassDoc::interfaces);
+    private static final DocCache<ClassDoc, Map<String, List<MethodDoc>>> inheritedMethods =
+            DocCache.of(DocUtils::collectInheritedMethods);
+    private static final DocCache<MethodDoc, List<MethodDoc>> overriddenMethods =
+            DocCache.of(DocUtils::findOverriddenMethods);
+    private static final DocCache<ProgramElementDoc, ClassDoc> containingClasses =
+            DocCache.of(ProgramElementDoc::containingClass);
+    private static final DocCache<ExecutableMemberDoc, Parameter[]> parameters = DocCache.of(ExecutableMemberDoc::parameters);
+    private static final DocCache<Parameter, String> parameterNames = DocCache.of(Parameter::name);
+    private static final DocCache<Parameter, Type> parameterTypes = DocCache.of(Parameter::type);
+    private static final DocCache<MethodDoc, Type> returnTypes = DocCache.of(MethodDoc::returnType);
+    private static final DocCache<Doc, String> comments = DocCache.of(Doc::commentText);
+    private static final DocCache<ClassDoc, TypeDescriptor> typeDescriptors = DocCache.of(TypeDescriptor::new);
+
+    public static String getQualifiedName(ClassDoc classDoc) {
+        return qualifiedNames.get(classDoc);
+    }
+
+    /**
+     * All the methods declared in the class, regardless of access modifiers.
+     */
+    public static MethodDoc[] getMethods(ClassDoc classDoc) {
+        return methods.get(classDoc);
+    }
+
+    public static ClassDoc getSuperclass(ClassDoc classDoc) {
+        return superclasses.get(classDoc);
+    }
+
+    /**
+     * The superclass including the type arguments it is extended with.
+     */
+    public static Type getSuperclassType(ClassDoc classDoc) {
+        return superclassTypes.get(classDoc);
+    }
+
+    public static ClassDoc[] getInterfaces(ClassDoc classDoc) {
+        return interfaces.get(classDoc);
+    }
+
+    /**
+     * All the methods from the superclasses and interfaces of the containing class which the method overrides or
+     * implements.  Methods from superclasses come before methods from interfaces, and nearer types before farther ones.
+     */
+    public static List<MethodDoc> getOverriddenMethods(MethodDoc methodDoc) {
+        return overriddenMethods.get(methodDoc);
+    }
+
+    public static ClassDoc getContainingClass(ProgramElementDoc doc) {
+        return containingClasses.get(doc);
+    }
+
+    public static Parameter[] getParameters(ExecutableMemberDoc memberDoc) {
+        return parameters.get(memberDoc);
+    }
+
+    public static String getParameterName(Parameter parameter) {
+        return parameterNames.get(parameter);
+    }
+
+    public static Type getParameterType(Parameter parameter) {
+        return parameterTypes.get(parameter);
+    }
+
+    public static Type getReturnType(MethodDoc methodDoc) {
+        return returnTypes.get(methodDoc);
+    }
+
+    public static String getCommentText(Doc doc) {
+        return comments.get(doc);
+    }
+
+    /**
+     * The type information of the class, built once per run.
+     */
+    public static TypeDescriptor getTypeDescriptor(ClassDoc classDoc) {
+        return typeDescriptors.get(classDoc);
+    }
+
+    private static List<MethodDoc> findOverriddenMethods(MethodDoc methodDoc) {
+        ClassDoc containingClass = getContainingClass(methodDoc);
+        if (methodDoc.isStatic() || containingClass == null)
+            return Collections.emptyList();
+
+        List<MethodDoc> candidates = inheritedMethods.get(containingClass).get(methodDoc.name());
+        if (candidates == null)
+            return Collections.emptyList();
+
+        List<MethodDoc> result = new ArrayList<MethodDoc>();
+        for (MethodDoc candidate : candidates)
+            if (methodDoc.overrides(candidate))
+                result.add(candidate);
+
+        return (result.isEmpty() ? Collections.<MethodDoc>emptyList() : result);
+    }
+
+    /**
+     * Groups the methods declared in every supertype of the class by name.  The table of each supertype is reused, so
+     * an interface is only walked once no matter how many classes implement it.
+     */
+    private static Map<String, List<MethodDoc>> collectInheritedMethods(ClassDoc classDoc) {
+        List<ClassDoc> supertypes = new ArrayList<ClassDoc>();
+        if (getSuperclass(classDoc) != null)
+            supertypes.add(getSuperclass(classDoc));
+        Collections.addAll(supertypes, getInterfaces(classDoc));
+
+        Map<String, List<MethodDoc>> result = new HashMap<String, List<MethodDoc>>();
+        for (ClassDoc supertype : supertypes) {
+            for (MethodDoc method : getMethods(supertype))
+                addMethod(result, method.name(), method);
+
+            for (Map.Entry<String, List<MethodDoc>> entry : inheritedMethods.get(supertype).entrySet())
+                for (MethodDoc method : entry.getValue())
+                    addMethod(result, entry.getKey(), method);
+        }
+
+        return result;
+    }
+
+    private static void addMethod(Map<String, List<MethodDoc>> methods, String name, MethodDoc method) {
+        List<MethodDoc> named = methods.get(name);
+        if (named == null) {
+            named = new ArrayList<MethodDoc>();
+            methods.put(name, named);
+        }
+        if (!named.contains(method))
+            named.add(method);
+    }
+}
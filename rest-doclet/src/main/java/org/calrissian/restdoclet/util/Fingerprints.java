@@ -0,0 +1,300 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.util;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.sun.javadoc.AnnotationDesc;
+import com.sun.javadoc.ClassDoc;
+import com.sun.javadoc.FieldDoc;
+import com.sun.javadoc.MethodDoc;
+import com.sun.javadoc.Parameter;
+import com.sun.javadoc.ParameterizedType;
+import com.sun.javadoc.SourcePosition;
+import com.sun.javadoc.Type;
+import com.sun.javadoc.WildcardType;
+
+import static org.calrissian.restdoclet.util.AnnotationUtils.getAnnotationIndex;
+import static org.calrissian.restdoclet.util.AnnotationUtils.getAnnotationType;
+import static org.calrissian.restdoclet.util.AnnotationUtils.getAnnotations;
+import static org.calrissian.restdoclet.util.DocUtils.getCommentText;
+import static org.calrissian.restdoclet.util.DocUtils.getInterfaces;
+import static org.calrissian.restdoclet.util.DocUtils.getMethods;
+import static org.calrissian.restdoclet.util.DocUtils.getParameterType;
+import static org.calrissian.restdoclet.util.DocUtils.getParameters;
+import static org.calrissian.restdoclet.util.DocUtils.getReturnType;
+import static org.calrissian.restdoclet.util.DocUtils.getSuperclass;
+import static org.calrissian.restdoclet.util.DocUtils.getTypeDescriptor;
+
+/**
+ * Fingerprints which change whenever anything a class descriptor is built from may have changed.
+ *
+ * The fingerprint of a class covers the class and every class it reaches through its supertypes, its annotations, the
+ * parameter and return types of its methods and the types of its fields, so changing a DTO changes the fingerprint of
+ * every controller which uses it.  Each class with source contributes its name, the path, size and modification time
+ * of its source file, its comment and the names of its annotations.  Classes without source, like library classes,
+ * only contribute their name and are not followed any further.
+ */
+public class Fingerprints {
+
+    private static final DocCache<ClassDoc, String> states = DocCache.of(Fingerprints::describeState);
+    private static final DocCache<ClassDoc, List<ClassDoc>> references = DocCache.of(Fingerprints::collectReferences);
+    //Only filled in once every class a class reaches has one, see getClosure.
+    private static final DocCache<ClassDoc, String> closures = DocCache.stored();
+
+    /**
+     * The fingerprint of the class as a hex string.
+     *
+     * @param classDoc
+     * @param salt anything else the descriptor depends on, like the collector and its configuration
+     */
+    public static String of(ClassDoc classDoc, String salt) {
+        MessageDigest digest = newDigest();
+        update(digest, salt);
+        update(digest, getClosure(classDoc));
+
+        return toHex(digest.digest());
+    }
+
+    /**
+     * The fingerprint of the class and every class it reaches, built once per run.  Classes which reach each other
+     * share one, built from the state of each of them and the fingerprints of the classes they reach outside of the
+     * cycle, so it does not depend on which class was fingerprinted first.
+     *
+     * The classes are walked with Tarjan's algorithm for strongly connected components, kept on an explicit stack so a
+     * deep graph of classes does not overflow the thread stack.  Classes which already have a fingerprint are not
+     * walked again.
+     */
+    private static String getClosure(ClassDoc root) {
+        String closure = closures.getIfPresent(root);
+        if (closure != null)
+            return closure;
+
+        Map<ClassDoc, Integer> indexes = new HashMap<ClassDoc, Integer>();
+        Map<ClassDoc, Integer> lowLinks = new HashMap<ClassDoc, Integer>();
+        Deque<ClassDoc> component = new ArrayDeque<ClassDoc>();
+        Set<ClassDoc> onComponent = new HashSet<ClassDoc>();
+        Deque<Visit> visits = new ArrayDeque<Visit>();
+        visits.push(visit(root, indexes, lowLinks, component, onComponent));
+
+        while (!visits.isEmpty()) {
+            Visit visit = visits.peek();
+            if (visit.next < visit.references.size()) {
+                ClassDoc reference = visit.references.get(visit.next++);
+                if (closures.getIfPresent(reference) != null)
+                    continue;
+
+                Integer index = indexes.get(reference);
+                if (index == null)
+                    visits.push(visit(reference, indexes, lowLinks, component, onComponent));
+                else if (onComponent.contains(reference))
+                    lowLinks.put(visit.classDoc, Math.min(lowLinks.get(visit.classDoc), index));
+                continue;
+            }
+
+            visits.pop();
+            int lowLink = lowLinks.get(visit.classDoc);
+            if (!visits.isEmpty())
+                lowLinks.put(visits.peek().classDoc, Math.min(lowLinks.get(visits.peek().classDoc), lowLink));
+
+            if (lowLink == indexes.get(visit.classDoc)) {
+                Set<ClassDoc> members = new HashSet<ClassDoc>();
+                ClassDoc member;
+                do {
+                    member = component.pop();
+                    onComponent.remove(member);
+                    members.add(member);
+                } while (member != visit.classDoc);
+
+                closure = describeClosure(members);
+                for (ClassDoc classDoc : members)
+                    closures.putIfAbsent(classDoc, closure);
+            }
+        }
+
+        return closures.getIfPresent(root);
+    }
+
+    private static Visit visit(ClassDoc classDoc, Map<ClassDoc, Integer> indexes, Map<ClassDoc, Integer> lowLinks,
+                               Deque<ClassDoc> component, Set<ClassDoc> onComponent) {
+        indexes.put(classDoc, indexes.size());
+        lowLinks.put(classDoc, indexes.get(classDoc));
+        component.push(classDoc);
+        onComponent.add(classDoc);
+
+        return new Visit(classDoc, references.get(classDoc));
+    }
+
+    /**
+     * The fingerprint of classes which reach each other.  Everything they reach outside of themselves already has a
+     * fingerprint.  Both are sorted, so the result does not depend on the order the classes were walked in.
+     */
+    private static String describeClosure(Set<ClassDoc> members) {
+        Set<String> memberStates = new TreeSet<String>();
+        Set<String> reached = new TreeSet<String>();
+        for (ClassDoc member : members) {
+            memberStates.add(states.get(member));
+            for (ClassDoc reference : references.get(member))
+                if (!members.contains(reference))
+                    reached.add(closures.getIfPresent(reference));
+        }
+
+        MessageDigest digest = newDigest();
+        for (String state : memberStates)
+            update(digest, state);
+        for (String closure : reached)
+            update(digest, closure);
+
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Whether the class was read from source.  Javadoc also gives classes read from class files a position, in a file
+     * which does not exist.
+     */
+    private static boolean hasSource(ClassDoc classDoc) {
+        SourcePosition position = classDoc.position();
+        return position != null && position.file() != null && position.file().isFile();
+    }
+
+    private static String describeState(ClassDoc classDoc) {
+        StringBuilder sb = new StringBuilder(classDoc.qualifiedName());
+        if (!hasSource(classDoc))
+            return sb.toString();
+
+        File file = classDoc.position().file();
+        sb.append('|').append(file.getAbsolutePath())
+                .append('|').append(file.length())
+                .append('|').append(file.lastModified())
+                .append('|').append(classDoc.position().line())
+                .append('|').append(getCommentText(classDoc));
+
+        for (String annotationName : getAnnotationIndex(classDoc).getNames())
+            sb.append('|').append(annotationName);
+
+        return sb.toString();
+    }
+
+    /**
+     * The classes the class refers to in any way which can end up in a descriptor.  Classes without source have no
+     * references.
+     */
+    private static List<ClassDoc> collectReferences(ClassDoc classDoc) {
+        if (!hasSource(classDoc))
+            return Collections.emptyList();
+
+        List<ClassDoc> result = new ArrayList<ClassDoc>();
+        addClass(getSuperclass(classDoc), result);
+        Collections.addAll(result, getInterfaces(classDoc));
+        addAnnotationTypes(getAnnotations(classDoc), result);
+
+        for (MethodDoc method : getMethods(classDoc)) {
+            addAnnotationTypes(getAnnotations(method), result);
+            addType(getReturnType(method), result);
+            for (Parameter parameter : getParameters(method)) {
+                addAnnotationTypes(getAnnotations(parameter), result);
+                addType(getParameterType(parameter), result);
+            }
+        }
+
+        for (FieldDoc field : getTypeDescriptor(classDoc).getFields())
+            addType(field.type(), result);
+
+        return result;
+    }
+
+    /**
+     * Adds the types of the annotations.  Annotations which can not be resolved, like ones missing from the classpath,
+     * are skipped.
+     */
+    private static void addAnnotationTypes(AnnotationDesc[] annotations, List<ClassDoc> result) {
+        for (AnnotationDesc annotation : annotations)
+            addClass(getAnnotationType(annotation), result);
+    }
+
+    private static void addType(Type type, List<ClassDoc> result) {
+        if (type == null || type.isPrimitive())
+            return;
+
+        addClass(type.asClassDoc(), result);
+
+        ParameterizedType parameterized = type.asParameterizedType();
+        if (parameterized != null)
+            for (Type argument : parameterized.typeArguments())
+                addType(argument, result);
+
+        WildcardType wildcard = type.asWildcardType();
+        if (wildcard != null) {
+            for (Type bound : wildcard.extendsBounds())
+                addType(bound, result);
+            for (Type bound : wildcard.superBounds())
+                addType(bound, result);
+        }
+    }
+
+    private static void addClass(ClassDoc classDoc, List<ClassDoc> result) {
+        if (classDoc != null)
+            result.add(classDoc);
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes)
+            sb.append(String.format("%02x", b & 0xFF));
+
+        return sb.toString();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A class being walked by {@link #getClosure}, with the next of its references to walk.
+     */
+    private static class Visit {
+        private final ClassDoc classDoc;
+        private final List<ClassDoc> references;
+        private int next = 0;
+
+        private Visit(ClassDoc classDoc, List<ClassDoc> references) {
+            this.classDoc = classDoc;
+            this.references = references;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.sun.javadoc.ClassDoc;
+import com.sun.javadoc.ParameterizedType;
+import com.sun.javadoc.Type;
+import com.sun.javadoc.TypeVariable;
+import org.calrissian.restdoclet.model.TypeRef;
+
+import static org.calrissian.restdoclet.util.CommonUtils.isEmpty;
+import static org.calrissian.restdoclet.util.DocUtils.getSuperclassType;
+
+/**
+ * Substitution of the type variables declared by generic superclasses.
+ *
+ * For a class like {@code OrderController extends BaseController<OrderDto>} the type variable {@code T} of the base
+ * class is bound to {@code OrderDto}.  The bindings of a class are built from the bindings of its superclass, so a
+ * generic base class which is shared by many classes is only resolved once per run.
+ */
+public class GenericUtils {
+
+    private static final DocCache<ClassDoc, Map<ClassDoc, Map<String, Type>>> typeArguments =
+            DocCache.of(GenericUtils::collectTypeArguments);
+
+    /**
+     * The type arguments the class binds to the type variables of one of its superclasses, keyed by the name of the
+     * type variable.  If the superclass is not generic, or is extended as a raw type, the map is empty.
+     *
+     * @param classDoc
+     * @param superclass
+     */
+    public static Map<String, Type> getTypeArguments(ClassDoc classDoc, ClassDoc superclass) {
+        Map<String, Type> arguments = typeArguments.get(classDoc).get(superclass);
+        return (arguments == null ? Collections.<String, Type>emptyMap() : arguments);
+    }
+
+    /**
+     * Replaces the class type variables in the type, including type arguments and array components, with their bound
+     * types.  The type is returned as is when there is nothing to replace.
+     *
+     * @param type
+     * @param arguments the type arguments from {@link #getTypeArguments}
+     */
+    public static Type resolve(Type type, Map<String, Type> arguments) {
+        if (type == null || arguments.isEmpty())
+            return type;
+
+        return DocCache.read(() -> substitute(type, arguments));
+    }
+
+    /**
+     * Replaces the class type variables in the snapshot of a type, including type arguments and array components, with
+     * their bound types.  The type is returned as is when there is nothing to replace.
+     *
+     * @param type
+     * @param arguments the type arguments from {@link #getTypeArguments}
+     */
+    public static TypeRef resolve(TypeRef type, Map<String, Type> arguments) {
+        if (type == null || arguments.isEmpty())
+            return type;
+
+        return DocCache.read(() -> substitute(type, arguments));
+    }
+
+    private static TypeRef substitute(TypeRef type, Map<String, Type> arguments) {
+        if (type.isPrimitive())
+            return type;
+
+        Budget.enter();
+        try {
+            if (type.getKind() == TypeRef.Kind.TYPE_VARIABLE) {
+                TypeRef bound = TypeRefs.of(arguments.get(type.getQualifiedName()));
+                if (bound == null)
+                    return type;
+
+                return (type.isArray() ? bound.withDimension(type.getDimension() + bound.getDimension()) : bound);
+            }
+
+            List<TypeRef> typeArguments = type.getTypeArguments();
+            List<TypeRef> substituted = null;
+            for (int i = 0; i < typeArguments.size(); i++) {
+                TypeRef argument = substitute(typeArguments.get(i), arguments);
+                if (argument != typeArguments.get(i)) {
+                    if (substituted == null)
+                        substituted = new ArrayList<TypeRef>(typeArguments);
+                    substituted.set(i, argument);
+                }
+            }
+
+            return (substituted == null ? type : type.withTypeArguments(substituted));
+        } finally {
+            Budget.exit();
+        }
+    }
+
+    private static Type substitute(Type type, Map<String, Type> arguments) {
+        if (type.isPrimitive())
+            return type;
+
+        Budget.enter();
+        try {
+            return substituteComponents(type, arguments);
+        } finally {
+            Budget.exit();
+        }
+    }
+
+    private static Type substituteComponents(Type type, Map<String, Type> arguments) {
+
+        TypeVariable variable = type.asTypeVariable();
+        if (variable != null) {
+            //Type variables declared by a method are not bound by the class.
+            Type bound = (variable.owner() instanceof ClassDoc ? arguments.get(variable.typeName()) : null);
+            if (bound == null)
+                return type;
+
+            return (isEmpty(type.dimension()) ? bound : new ResolvedType(bound, null, type.dimension()));
+        }
+
+        ParameterizedType parameterized = type.asParameterizedType();
+        if (parameterized != null) {
+            Type[] typeArguments = parameterized.typeArguments();
+            Type[] substituted = null;
+            for (int i = 0; i < typeArguments.length; i++) {
+                Type argument = substitute(typeArguments[i], arguments);
+                if (argument != typeArguments[i]) {
+                    if (substituted == null)
+                        substituted = typeArguments.clone();
+                    substituted[i] = argument;
+                }
+            }
+
+            if (substituted != null)
+                return new ResolvedType(parameterized, substituted, type.dimension());
+        }
+
+        return type;
+    }
+
+    /**
+     * Binds the type variables of every superclass of the class.  The bindings of the direct superclass come from the
+     * type arguments the class extends it with, and the bindings of the farther superclasses are the bindings of the
+     * direct superclass with its own type variables substituted.
+     */
+    private static Map<ClassDoc, Map<String, Type>> collectTypeArguments(ClassDoc classDoc) {
+        Type superclassType = getSuperclassType(classDoc);
+        ClassDoc superclass = (superclassType == null ? null : superclassType.asClassDoc());
+        if (superclass == null)
+            return Collections.emptyMap();
+
+        Map<String, Type> direct = new HashMap<String, Type>();
+        ParameterizedType parameterized = superclassType.asParameterizedType();
+        if (parameterized != null) {
+            TypeVariable[] variables = superclass.typeParameters();
+            Type[] arguments = parameterized.typeArguments();
+            for (int i = 0; i < variables.length && i < arguments.length; i++)
+                direct.put(variables[i].typeName(), arguments[i]);
+        }
+
+        Map<ClassDoc, Map<String, Type>> result = new HashMap<ClassDoc, Map<String, Type>>();
+        result.put(superclass, direct);
+        for (Map.Entry<ClassDoc, Map<String, Type>> entry : typeArguments.get(superclass).entrySet()) {
+            Map<String, Type> inherited = new HashMap<String, Type>();
+            for (Map.Entry<String, Type> argument : entry.getValue().entrySet())
+                inherited.put(argument.getKey(), resolve(argument.getValue(), direct));
+
+            result.put(entry.getKey(), inherited);
+        }
+
+        return result;
+    }
+}
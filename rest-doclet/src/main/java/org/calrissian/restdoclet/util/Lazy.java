@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.util;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A value which is only computed the first time it is read, and then kept.
+ *
+ * Lazy values are usually computed from the javadoc model, long after the collector which created them has finished,
+ * so the first read is done while holding the javadoc lock of {@link DocCache}.  Later reads do not lock.
+ */
+public class Lazy<T> implements Supplier<T> {
+
+    private volatile Supplier<? extends T> supplier;
+    private T value;
+
+    private Lazy(Supplier<? extends T> supplier, T value) {
+        this.supplier = supplier;
+        this.value = value;
+    }
+
+    public static <T> Lazy<T> of(Supplier<? extends T> supplier) {
+        return new Lazy<T>(supplier, null);
+    }
+
+    /**
+     * A lazy value which is already computed.
+     */
+    public static <T> Lazy<T> value(T value) {
+        return new Lazy<T>(null, value);
+    }
+
+    @Override
+    public T get() {
+        if (supplier != null) {
+            DocCache.read(() -> {
+                Supplier<? extends T> pending = supplier;
+                if (pending != null) {
+                    value = pending.get();
+                    //Releasing the supplier publishes the value, and lets go of everything the supplier referenced.
+                    supplier = null;
+                }
+                return null;
+            });
+        }
+
+        return value;
+    }
+
+    /**
+     * Whether the value has been computed yet.
+     */
+    public boolean isEvaluated() {
+        return supplier == null;
+    }
+
+    /**
+     * A lazy value derived from this one, which is computed the first time it is read.
+     */
+    public <R> Lazy<R> map(Function<? super T, ? extends R> mapper) {
+        return Lazy.<R>of(() -> mapper.apply(get()));
+    }
+}
@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Matches qualified class names against include and exclude patterns.  A name is accepted when it matches one of the
+ * include patterns, or there are none, and does not match any of the exclude patterns.
+ *
+ * The patterns are split on '.' into segments and compiled into a trie, so patterns which share a package prefix are
+ * only compared once.
+ * <ul>
+ *     <li>A pattern without wildcards matches the name itself and every name below it, so {@code com.acme.api}
+ *     matches the package and all its sub packages, and {@code com.acme.Outer} matches its nested classes.</li>
+ *     <li>{@code *} and {@code ?} match any characters, or a single character, within one segment.</li>
+ *     <li>{@code **} matches any number of segments.</li>
+ * </ul>
+ */
+public class NameFilter {
+
+    private static final String ANY_SEGMENTS = "**";
+
+    private final Node includes;
+    private final Node excludes;
+
+    private NameFilter(Node includes, Node excludes) {
+        this.includes = includes;
+        this.excludes = excludes;
+    }
+
+    public static NameFilter compile(Collection<String> includes, Collection<String> excludes) {
+        return new NameFilter(compile(includes), compile(excludes));
+    }
+
+    private static Node compile(Collection<String> patterns) {
+        Node root = null;
+        for (String pattern : patterns) {
+            String trimmed = pattern.trim();
+            while (trimmed.endsWith("."))
+                trimmed = trimmed.substring(0, trimmed.length() - 1);
+            if (trimmed.isEmpty())
+                continue;
+
+            if (root == null)
+                root = new Node();
+            root.add(trimmed.split("\\."), 0, !trimmed.contains("*") && !trimmed.contains("?"));
+        }
+
+        return root;
+    }
+
+    /**
+     * Whether there are any patterns at all.  When there are none every name is accepted.
+     */
+    public boolean isEmpty() {
+        return includes == null && excludes == null;
+    }
+
+    public boolean accepts(String qualifiedName) {
+        if (isEmpty())
+            return true;
+
+        String[] segments = qualifiedName.split("\\.");
+        if (includes != null && !includes.matches(segments, 0))
+            return false;
+
+        return excludes == null || !excludes.matches(segments, 0);
+    }
+
+    private static class Node {
+        private final Map<String, Node> literals = new HashMap<String, Node>();
+        private final List<Pattern> globs = new ArrayList<Pattern>();
+        private final List<Node> globNodes = new ArrayList<Node>();
+        private Node anySegments;
+
+        //Set when a pattern ends at this node.  A prefix match also accepts every name below the node.
+        private boolean exact;
+        private boolean prefix;
+
+        private void add(String[] segments, int index, boolean isPrefix) {
+            if (index == segments.length) {
+                if (isPrefix)
+                    prefix = true;
+                else
+                    exact = true;
+                return;
+            }
+
+            String segment = segments[index];
+            Node child;
+            if (ANY_SEGMENTS.equals(segment)) {
+                if (anySegments == null)
+                    anySegments = new Node();
+                child = anySegments;
+
+            } else if (segment.contains("*") || segment.contains("?")) {
+                Pattern glob = toPattern(segment);
+                int existing = -1;
+                for (int i = 0; i < globs.size(); i++)
+                    if (globs.get(i).pattern().equals(glob.pattern()))
+                        existing = i;
+
+                if (existing < 0) {
+                    globs.add(glob);
+                    globNodes.add(new Node());
+                    existing = globs.size() - 1;
+                }
+                child = globNodes.get(existing);
+
+            } else {
+                child = literals.get(segment);
+                if (child == null) {
+                    child = new Node();
+                    literals.put(segment, child);
+                }
+            }
+
+            child.add(segments, index + 1, isPrefix);
+        }
+
+        private boolean matches(String[] segments, int index) {
+            if (prefix || (exact && index == segments.length))
+                return true;
+
+            if (anySegments != null)
+                for (int i = index; i <= segments.length; i++)
+                    if (anySegments.matches(segments, i))
+                        return true;
+
+            if (index == segments.length)
+                return false;
+
+            Node literal = literals.get(segments[index]);
+            if (literal != null && literal.matches(segments, index + 1))
+                return true;
+
+            for (int i = 0; i < globs.size(); i++)
+                if (globs.get(i).matcher(segments[index]).matches() && globNodes.get(i).matches(segments, index + 1))
+                    return true;
+
+            return false;
+        }
+
+        private static Pattern toPattern(String glob) {
+            StringBuilder regex = new StringBuilder();
+            StringBuilder literal = new StringBuilder();
+            for (char c : glob.toCharArray()) {
+                if (c == '*' || c == '?') {
+                    if (literal.length() > 0) {
+                        regex.append(Pattern.quote(literal.toString()));
+                        literal.setLength(0);
+                    }
+                    regex.append(c == '*' ? ".*" : ".");
+                } else {
+                    literal.append(c);
+                }
+            }
+            if (literal.length() > 0)
+                regex.append(Pattern.quote(literal.toString()));
+
+            return Pattern.compile(regex.toString());
+        }
+    }
+}
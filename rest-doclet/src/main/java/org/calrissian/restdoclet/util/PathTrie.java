@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.util;
+
+import org.calrissian.restdoclet.model.PathNode;
+
+/**
+ * Run scoped trie which interns every endpoint path, so that shared prefixes are only stored once and paths can be
+ * grouped by node identity.
+ */
+public class PathTrie {
+
+    private static volatile PathNode root = PathNode.root();
+
+    public static PathNode getRoot() {
+        return root;
+    }
+
+    /**
+     * Finds or creates the node for the path.  The path does not need to be normalized.
+     */
+    public static PathNode intern(String path) {
+        return root.resolve(path);
+    }
+
+    /**
+     * Finds the node for the path without creating it, or null if no path in the trie has that node.  The path does
+     * not need to be normalized.
+     */
+    public static PathNode find(String path) {
+        return root.find(path);
+    }
+
+    /**
+     * Starts a new trie.  Nodes from the previous trie remain usable but are no longer shared.
+     */
+    public static void clear() {
+        root = PathNode.root();
+    }
+}
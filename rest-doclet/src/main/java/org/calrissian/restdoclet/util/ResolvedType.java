@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.util;
+
+import com.sun.javadoc.AnnotatedType;
+import com.sun.javadoc.AnnotationTypeDoc;
+import com.sun.javadoc.ClassDoc;
+import com.sun.javadoc.ParameterizedType;
+import com.sun.javadoc.Type;
+import com.sun.javadoc.TypeVariable;
+import com.sun.javadoc.WildcardType;
+
+import static org.calrissian.restdoclet.util.CommonUtils.isEmpty;
+
+/**
+ * A type which javadoc can not provide directly, because some of its type variables were substituted.  It is either
+ * an array of a substituted type variable, or a parameterized type with substituted type arguments.
+ *
+ * Instances are created by {@link GenericUtils#resolve}.
+ */
+class ResolvedType implements ParameterizedType {
+
+    private final Type delegate;
+    private final Type[] typeArguments;
+    private final String dimension;
+
+    /**
+     * @param delegate the type being wrapped
+     * @param typeArguments the substituted type arguments, or null if the type arguments of the delegate are used
+     * @param dimension the array dimension added to the delegate
+     */
+    ResolvedType(Type delegate, Type[] typeArguments, String dimension) {
+        this.delegate = delegate;
+        this.typeArguments = typeArguments;
+        this.dimension = (dimension == null ? "" : dimension);
+    }
+
+    @Override
+    public String typeName() {
+        return delegate.typeName();
+    }
+
+    @Override
+    public String qualifiedTypeName() {
+        return delegate.qualifiedTypeName();
+    }
+
+    @Override
+    public String simpleTypeName() {
+        return delegate.simpleTypeName();
+    }
+
+    @Override
+    public String dimension() {
+        return dimension + delegate.dimension();
+    }
+
+    @Override
+    public boolean isPrimitive() {
+        return delegate.isPrimitive();
+    }
+
+    @Override
+    public ClassDoc asClassDoc() {
+        return delegate.asClassDoc();
+    }
+
+    @Override
+    public ParameterizedType asParameterizedType() {
+        return (typeArguments != null ? this : delegate.asParameterizedType());
+    }
+
+    @Override
+    public TypeVariable asTypeVariable() {
+        return delegate.asTypeVariable();
+    }
+
+    @Override
+    public WildcardType asWildcardType() {
+        return delegate.asWildcardType();
+    }
+
+    @Override
+    public AnnotatedType asAnnotatedType() {
+        return delegate.asAnnotatedType();
+    }
+
+    @Override
+    public AnnotationTypeDoc asAnnotationTypeDoc() {
+        return delegate.asAnnotationTypeDoc();
+    }
+
+    @Override
+    public Type getElementType() {
+        if (isEmpty(dimension))
+            return delegate.getElementType();
+
+        String elementDimension = dimension.substring(2);
+        if (isEmpty(elementDimension) && typeArguments == null)
+            return delegate;
+
+        return new ResolvedType(delegate, typeArguments, elementDimension);
+    }
+
+    @Override
+    public Type[] typeArguments() {
+        if (typeArguments != null)
+            return typeArguments.clone();
+
+        ParameterizedType parameterized = delegate.asParameterizedType();
+        return (parameterized == null ? new Type[0] : parameterized.typeArguments());
+    }
+
+    @Override
+    public Type superclassType() {
+        ParameterizedType parameterized = delegate.asParameterizedType();
+        return (parameterized == null ? null : parameterized.superclassType());
+    }
+
+    @Override
+    public Type[] interfaceTypes() {
+        ParameterizedType parameterized = delegate.asParameterizedType();
+        return (parameterized == null ? new Type[0] : parameterized.interfaceTypes());
+    }
+
+    @Override
+    public Type containingType() {
+        ParameterizedType parameterized = delegate.asParameterizedType();
+        return (parameterized == null ? null : parameterized.containingType());
+    }
+
+    @Override
+    public String toString() {
+        if (typeArguments == null)
+            return delegate.toString() + dimension;
+
+        StringBuilder sb = new StringBuilder(delegate.qualifiedTypeName()).append('<');
+        for (int i = 0; i < typeArguments.length; i++) {
+            if (i > 0)
+                sb.append(',');
+            sb.append(typeArguments[i]);
+        }
+
+        return sb.append('>').append(dimension()).toString();
+    }
+}
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Run scoped pool of the text held by the model, like media types, http methods, parameter names and inherited
+ * descriptions.  The same values occur in thousands of endpoints, so every model constructor passes its text through
+ * the pool and the model keeps a single instance of each value.
+ *
+ * Unlike {@link String#intern()} the pool is emptied by {@link #clear()} at the end of each run.  The pool also keeps
+ * an estimate of the size of the text it was given and of the text it retained, see {@link #getRequestedSize()} and
+ * {@link #getRetainedSize()}.
+ */
+public class StringPool {
+
+    private static final ConcurrentMap<String, String> pool = new ConcurrentHashMap<String, String>();
+    private static final LongAdder requestedSize = new LongAdder();
+    private static final LongAdder retainedSize = new LongAdder();
+
+    /**
+     * The pooled instance of the value.
+     */
+    public static String intern(String value) {
+        //A value which is already the pooled instance is not another copy.
+        if (value == null || pool.get(value) == value)
+            return value;
+
+        long size = estimateSize(value);
+        requestedSize.add(size);
+
+        String pooled = pool.putIfAbsent(value, value);
+        if (pooled != null)
+            return pooled;
+
+        retainedSize.add(size);
+        return value;
+    }
+
+    /**
+     * A copy of the values with each of them replaced by its pooled instance.
+     */
+    public static List<String> internAll(Collection<String> values) {
+        if (values == null)
+            return null;
+
+        List<String> result = new ArrayList<String>(values.size());
+        for (String value : values)
+            result.add(intern(value));
+
+        return result;
+    }
+
+    /**
+     * Number of distinct values in the pool.
+     */
+    public static int size() {
+        return pool.size();
+    }
+
+    /**
+     * Estimated bytes the text given to the pool would take if every value was kept as a separate instance.
+     */
+    public static long getRequestedSize() {
+        return requestedSize.sum();
+    }
+
+    /**
+     * Estimated bytes taken by the distinct values retained in the pool.
+     */
+    public static long getRetainedSize() {
+        return retainedSize.sum();
+    }
+
+    /**
+     * Empties the pool.  Values which were already pooled remain usable but are no longer shared.
+     */
+    public static void clear() {
+        pool.clear();
+        requestedSize.reset();
+        retainedSize.reset();
+    }
+
+    /**
+     * The size of a string and its character array on a 64 bit vm with compressed references.
+     */
+    private static long estimateSize(String value) {
+        return 24 + ((16 + 2L * value.length() + 7) & ~7L);
+    }
+}
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.sun.javadoc.ExecutableMemberDoc;
+import com.sun.javadoc.ParamTag;
+import com.sun.javadoc.Tag;
+
+import static org.calrissian.restdoclet.util.CommonUtils.isEmpty;
+import static org.calrissian.restdoclet.util.TagUtils.PATHVAR_TAG;
+import static org.calrissian.restdoclet.util.TagUtils.QUERYPARAM_TAG;
+import static org.calrissian.restdoclet.util.TagUtils.REQUESTBODY_TAG;
+import static org.calrissian.restdoclet.util.TagUtils.firstSentence;
+import static org.calrissian.restdoclet.util.TagUtils.getParamTags;
+import static org.calrissian.restdoclet.util.TagUtils.getTags;
+
+/**
+ * The parameter documentation of a single method, parsed once.  Each of the parameter tags is keyed by the name it
+ * documents.  When a name is documented more than once the first tag wins.
+ *
+ * Instances are built once per method by {@link TagUtils#getTagIndex}.
+ */
+public class TagIndex {
+
+    private final Map<String, String> pathVars;
+    private final Map<String, String> queryParams;
+    private final Map<String, String> params;
+    private final Map<String, String> paramComments;
+    private final String requestBody;
+    private final String firstSentence;
+
+    TagIndex(ExecutableMemberDoc memberDoc) {
+        this.pathVars = parse(getTags(memberDoc, PATHVAR_TAG));
+        this.queryParams = parse(getTags(memberDoc, QUERYPARAM_TAG));
+
+        ParamTag[] paramTags = getParamTags(memberDoc);
+        this.params = parse(paramTags);
+        this.paramComments = new HashMap<String, String>();
+        for (ParamTag tag : paramTags)
+            if (tag.parameterName() != null && !paramComments.containsKey(tag.parameterName()))
+                paramComments.put(tag.parameterName(), tag.parameterComment());
+
+        Tag[] requestBodyTags = getTags(memberDoc, REQUESTBODY_TAG);
+        this.requestBody = (isEmpty(requestBodyTags) ? null : requestBodyTags[0].text());
+        this.firstSentence = firstSentence(memberDoc);
+    }
+
+    /**
+     * Splits the text of each tag into the leading name and the description which follows it.
+     */
+    private static Map<String, String> parse(Tag[] tags) {
+        Map<String, String> values = new HashMap<String, String>();
+        for (Tag tag : tags) {
+            String text = tag.text().trim();
+            int split = text.indexOf(' ');
+            String name = (split < 0 ? text : text.substring(0, split));
+            if (!values.containsKey(name))
+                values.put(name, (split < 0 ? "" : text.substring(split).trim()));
+        }
+
+        return values;
+    }
+
+    /**
+     * The description from the {@link TagUtils#PATHVAR_TAG} tag for the name, or null if there is none.
+     */
+    public String getPathVarText(String name) {
+        return pathVars.get(name);
+    }
+
+    /**
+     * The description from the {@link TagUtils#QUERYPARAM_TAG} tag for the name, or null if there is none.
+     */
+    public String getQueryParamText(String name) {
+        return queryParams.get(name);
+    }
+
+    /**
+     * The description from the param tag for the name, or null if there is none.
+     */
+    public String getParamText(String name) {
+        return params.get(name);
+    }
+
+    /**
+     * The comment javadoc associates with the named parameter, or an empty string if there is none.
+     */
+    public String getParamComment(String name) {
+        String comment = paramComments.get(name);
+        return (comment == null ? "" : comment);
+    }
+
+    /**
+     * The text of the first {@link TagUtils#REQUESTBODY_TAG} tag, or null if there is none.
+     */
+    public String getRequestBodyText() {
+        return requestBody;
+    }
+
+    public String getFirstSentence() {
+        return firstSentence;
+    }
+}
@@ -15,9 +15,12 @@
  *******************************************************************************/
 package org.calrissian.restdoclet.util;
 
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.sun.javadoc.Doc;
+import com.sun.javadoc.ExecutableMemberDoc;
 import com.sun.javadoc.ParamTag;
 import com.sun.javadoc.Tag;
 
@@ -32,26 +35,58 @@ public class TagUtils {
     public static final String QUERYPARAM_TAG = "queryParam";
     public static final String REQUESTBODY_TAG = "requestBody";
 
+    private static final DocCache<Doc, Map<String, Tag[]>> tags =
+            DocCache.of(doc -> new ConcurrentHashMap<String, Tag[]>());
+    private static final DocCache<ExecutableMemberDoc, ParamTag[]> paramTags =
+            DocCache.of(ExecutableMemberDoc::paramTags);
+    private static final DocCache<ExecutableMemberDoc, TagIndex> tagIndexes = DocCache.of(TagIndex::new);
+
+    public static Tag[] getTags(Doc doc, String tagName) {
+        Map<String, Tag[]> docTags = tags.get(doc);
+        Tag[] result = docTags.get(tagName);
+        if (result == null) {
+            result = DocCache.read(() -> docTags.computeIfAbsent(tagName, doc::tags));
+        }
+
+        return result;
+    }
+
+    public static ParamTag[] getParamTags(ExecutableMemberDoc memberDoc) {
+        return paramTags.get(memberDoc);
+    }
+
+    /**
+     * The parameter documentation of a method, parsed once per run.
+     */
+    public static TagIndex getTagIndex(ExecutableMemberDoc memberDoc) {
+        return tagIndexes.get(memberDoc);
+    }
+
     public static String findParamText(Tag[] tags, String name) {
-        for (Tag tag : tags) {
-            if (tag.text().trim().equals(name) || tag.text().trim().startsWith(name + " ")) {
-                return tag.text().trim().substring(name.length()).trim();
+        return DocCache.read(() -> {
+            for (Tag tag : tags) {
+                String text = tag.text().trim();
+                if (text.equals(name) || text.startsWith(name + " ")) {
+                    return text.substring(name.length()).trim();
+                }
             }
-        }
 
-        return null;
+            return null;
+        });
     }
 
     public static String findParamComment(ParamTag[] tags, String name) {
-        for (ParamTag tag : tags) {
-            if (Objects.equals(name, tag.parameterName())) { return tag.parameterComment(); }
-        }
+        return DocCache.read(() -> {
+            for (ParamTag tag : tags) {
+                if (Objects.equals(name, tag.parameterName())) { return tag.parameterComment(); }
+            }
 
-        return "";
+            return "";
+        });
     }
 
     public static String firstSentence(Doc doc) {
-        Tag[] tags = doc.firstSentenceTags();
+        Tag[] tags = DocCache.read(doc::firstSentenceTags);
         StringBuilder sb = new StringBuilder();
         if (!isEmpty(tags)) {
             for (Tag tag : tags) { sb.append(tag.text()); }
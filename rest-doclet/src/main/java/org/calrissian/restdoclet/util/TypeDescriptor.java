@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import com.sun.javadoc.ClassDoc;
+import com.sun.javadoc.FieldDoc;
+import com.sun.javadoc.MethodDoc;
+
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableSet;
+
+/**
+ * The information about a class which the writers need to describe it as a type.  The supertype closure is built
+ * from the descriptors of the direct supertypes, so each class in a hierarchy is only walked once per run.
+ *
+ * Instances are built once per class by {@link DocUtils#getTypeDescriptor}.
+ */
+public class TypeDescriptor {
+
+    private final ClassDoc classDoc;
+    private final Set<String> supertypes;
+    private final boolean container;
+    private final List<String> allowableValues;
+    private final List<FieldDoc> fields;
+    private final Set<String> methodNames;
+
+    TypeDescriptor(ClassDoc classDoc) {
+        this.classDoc = classDoc;
+
+        Set<String> supertypes = new HashSet<String>();
+        supertypes.add(classDoc.qualifiedTypeName().intern());
+        ClassDoc superclass = DocUtils.getSuperclass(classDoc);
+        if (superclass != null)
+            supertypes.addAll(DocUtils.getTypeDescriptor(superclass).supertypes);
+        for (ClassDoc iface : classDoc.interfaces())
+            supertypes.addAll(DocUtils.getTypeDescriptor(iface).supertypes);
+        this.supertypes = supertypes;
+
+        this.container = supertypes.contains(Iterable.class.getName());
+
+        List<String> allowableValues = new ArrayList<String>();
+        for (FieldDoc field : classDoc.enumConstants())
+            allowableValues.add(field.name());
+        this.allowableValues = unmodifiableList(allowableValues);
+
+        List<FieldDoc> fields = new ArrayList<FieldDoc>();
+        for (FieldDoc field : classDoc.fields(false))
+            fields.add(field);
+        this.fields = unmodifiableList(fields);
+
+        Set<String> methodNames = new HashSet<String>();
+        for (MethodDoc method : classDoc.methods())
+            methodNames.add(method.name().toLowerCase(Locale.ROOT));
+        this.methodNames = methodNames;
+    }
+
+    public ClassDoc getClassDoc() {
+        return classDoc;
+    }
+
+    /**
+     * The qualified names of the class and all its supertypes.
+     */
+    public Set<String> getSupertypes() {
+        return unmodifiableSet(supertypes);
+    }
+
+    /**
+     * Checks if the class is the type, or a subtype, of the provided qualified class name.
+     */
+    public boolean isSubtypeOf(String qualifiedName) {
+        return supertypes.contains(qualifiedName);
+    }
+
+    /**
+     * Whether the class is an {@link Iterable}.
+     */
+    public boolean isContainer() {
+        return container;
+    }
+
+    public boolean isEnum() {
+        return !allowableValues.isEmpty();
+    }
+
+    /**
+     * The names of the enum constants, or an empty list if the class is not an enum.
+     */
+    public Collection<String> getAllowableValues() {
+        return allowableValues;
+    }
+
+    /**
+     * All the fields declared in the class, regardless of access modifiers.
+     */
+    public List<FieldDoc> getFields() {
+        return fields;
+    }
+
+    /**
+     * Whether the class has a setter for the field, ignoring case.
+     */
+    public boolean hasSetter(String fieldName) {
+        return methodNames.contains(("set" + fieldName).toLowerCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.sun.javadoc.ClassDoc;
+import com.sun.javadoc.FieldDoc;
+import com.sun.javadoc.ParameterizedType;
+import com.sun.javadoc.Type;
+import com.sun.javadoc.TypeVariable;
+import org.calrissian.restdoclet.model.ClassRef;
+import org.calrissian.restdoclet.model.FieldRef;
+import org.calrissian.restdoclet.model.TypeRef;
+
+import static org.calrissian.restdoclet.util.DocUtils.getCommentText;
+import static org.calrissian.restdoclet.util.DocUtils.getSuperclass;
+import static org.calrissian.restdoclet.util.DocUtils.getTypeDescriptor;
+
+/**
+ * Builds the {@link TypeRef} snapshots of javadoc types.  The {@link ClassRef} of each class is built once per run,
+ * together with the classes of its fields, so the snapshot of a type holds everything the writers can ask about it.
+ *
+ * The fields of classes in {@code java} and {@code javax} packages are not captured, the writers describe those
+ * classes by name only.  Taking a snapshot counts against the budget of the current unit, each class nested in
+ * another is a level of depth.
+ */
+public class TypeRefs {
+
+    private static final String[] OPAQUE_PACKAGES = {"java.", "javax."};
+
+    private static final Map<ClassDoc, ClassRef> classRefs = new ConcurrentHashMap<ClassDoc, ClassRef>();
+
+    /**
+     * The snapshot of the type, or null if the type is null.
+     */
+    public static TypeRef of(Type type) {
+        if (type == null)
+            return null;
+
+        return DocCache.read(() -> new Snapshot().toTypeRef(type));
+    }
+
+    /**
+     * Forgets the classes of the run.  Snapshots which were already taken remain usable.
+     */
+    public static void clear() {
+        classRefs.clear();
+    }
+
+    private static boolean isOpaque(ClassDoc classDoc) {
+        String name = classDoc.qualifiedName();
+        for (String prefix : OPAQUE_PACKAGES)
+            if (name.startsWith(prefix))
+                return true;
+
+        return false;
+    }
+
+    /**
+     * A single snapshot, which keeps track of the classes it registers.  If the snapshot fails part way, those classes
+     * may be missing some of their fields, so they are dropped to be built again by the next snapshot.
+     */
+    private static class Snapshot {
+        private final Collection<ClassDoc> added = new ArrayList<ClassDoc>();
+
+        private TypeRef toTypeRef(Type type) {
+            try {
+                return createTypeRef(type);
+            } catch (RuntimeException | Error e) {
+                for (ClassDoc classDoc : added)
+                    classRefs.remove(classDoc);
+                throw e;
+            }
+        }
+
+        private TypeRef createTypeRef(Type type) {
+            Budget.check();
+            if (type.isPrimitive())
+                return new TypeRef(TypeRef.Kind.PRIMITIVE, type.qualifiedTypeName(), type.simpleTypeName(),
+                        type.dimension(), null, null);
+
+            //Type variables declared by a method are not bound by the class.
+            TypeVariable variable = type.asTypeVariable();
+            TypeRef.Kind kind = (variable != null && variable.owner() instanceof ClassDoc ?
+                    TypeRef.Kind.TYPE_VARIABLE : TypeRef.Kind.CLASS);
+
+            List<TypeRef> typeArguments = null;
+            ParameterizedType parameterized = type.asParameterizedType();
+            if (parameterized != null) {
+                typeArguments = new ArrayList<TypeRef>();
+                for (Type argument : parameterized.typeArguments())
+                    typeArguments.add(createTypeRef(argument));
+            }
+
+            ClassDoc classDoc = type.asClassDoc();
+            return new TypeRef(kind, type.qualifiedTypeName(), type.simpleTypeName(), type.dimension(), typeArguments,
+                    (classDoc == null ? null : getClassRef(classDoc)));
+        }
+
+        private ClassRef getClassRef(ClassDoc classDoc) {
+            ClassRef classRef = classRefs.get(classDoc);
+            if (classRef != null)
+                return classRef;
+
+            ClassDoc superclassDoc = getSuperclass(classDoc);
+            ClassRef superclass = null;
+            if (superclassDoc != null) {
+                Budget.enter();
+                try {
+                    superclass = getClassRef(superclassDoc);
+                } finally {
+                    Budget.exit();
+                }
+            }
+
+            //The fields of the superclass may have led back to this class.
+            classRef = classRefs.get(classDoc);
+            if (classRef != null)
+                return classRef;
+
+            TypeDescriptor descriptor = getTypeDescriptor(classDoc);
+            List<FieldRef> fields = new ArrayList<FieldRef>();
+            classRef = new ClassRef(classDoc.qualifiedTypeName(), descriptor.getSupertypes(),
+                    new ArrayList<String>(descriptor.getAllowableValues()), fields, superclass);
+
+            //The class is registered before its fields are added, so fields which lead back to it find it.
+            classRefs.put(classDoc, classRef);
+            added.add(classDoc);
+
+            if (!isOpaque(classDoc)) {
+                Budget.enter();
+                try {
+                    for (FieldDoc field : descriptor.getFields())
+                        fields.add(new FieldRef(field.name(), createTypeRef(field.type()), getCommentText(field),
+                                descriptor.hasSetter(field.name())));
+                } finally {
+                    Budget.exit();
+                }
+            }
+
+            return classRef;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.writer;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import org.calrissian.restdoclet.model.ClassDescriptor;
+
+/**
+ * Receives the class descriptors of a run one at a time, in the order they were collected.  Closing the sink finishes
+ * the output.
+ */
+public interface DescriptorSink extends Closeable {
+
+    public void accept(ClassDescriptor classDescriptor) throws IOException;
+
+}
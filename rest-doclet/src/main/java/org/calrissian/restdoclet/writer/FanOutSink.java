@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.writer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.calrissian.restdoclet.model.ClassDescriptor;
+import org.calrissian.restdoclet.util.CommonUtils;
+
+/**
+ * Hands every descriptor to each of several queued sinks, so each writer gets the same descriptors on its own thread.
+ */
+public class FanOutSink implements DescriptorSink {
+
+    private final List<QueuedSink> sinks;
+
+    public FanOutSink(List<QueuedSink> sinks) {
+        this.sinks = new ArrayList<QueuedSink>(sinks);
+    }
+
+    @Override
+    public void accept(ClassDescriptor classDescriptor) throws IOException {
+        for (DescriptorSink sink : sinks)
+            sink.accept(classDescriptor);
+    }
+
+    /**
+     * Lets every sink finish before waiting on any of them, so the writers write their last files concurrently.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            for (QueuedSink sink : sinks)
+                sink.finish();
+        } finally {
+            CommonUtils.close(sinks.toArray(new QueuedSink[sinks.size()]));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.writer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.calrissian.restdoclet.Configuration;
+import org.calrissian.restdoclet.model.ClassDescriptor;
+import org.calrissian.restdoclet.model.EndpointIndex;
+import org.calrissian.restdoclet.model.EndpointTable;
+
+/**
+ * Holds the descriptors for the writers which need all of them at once, see {@link Writer#open(Configuration)}.  When
+ * the sink is closed the {@link EndpointIndex} is built once, and every writer writes from it on its own thread.
+ *
+ * With the table model the descriptors are only kept as the rows of an {@link EndpointTable}.
+ */
+public class IndexSink implements DescriptorSink {
+
+    private final Collection<ClassDescriptor> classDescriptors;
+    private final EndpointTable table;
+    private final List<String> names = new ArrayList<String>();
+    private final List<Writer> writers = new ArrayList<Writer>();
+    private final List<Configuration> configs = new ArrayList<Configuration>();
+
+    public IndexSink(Configuration config) {
+        if (config.getModel().equals(EndpointTable.MODEL_OPTION_NAME)) {
+            this.table = new EndpointTable();
+            this.classDescriptors = null;
+        } else {
+            this.table = null;
+            this.classDescriptors = new ArrayList<ClassDescriptor>();
+        }
+    }
+
+    public void add(String name, Writer writer, Configuration config) {
+        names.add(name);
+        writers.add(writer);
+        configs.add(config);
+    }
+
+    public boolean isEmpty() {
+        return writers.isEmpty();
+    }
+
+    @Override
+    public void accept(ClassDescriptor classDescriptor) {
+        if (table != null)
+            table.add(classDescriptor);
+        else
+            classDescriptors.add(classDescriptor);
+    }
+
+    @Override
+    public void close() throws IOException {
+        final EndpointIndex index = EndpointIndex.of(table != null ? table.asDescriptors() : classDescriptors);
+
+        List<QueuedSink> sinks = new ArrayList<QueuedSink>(writers.size());
+        try {
+            for (int i = 0; i < writers.size(); i++) {
+                final Writer writer = writers.get(i);
+                final Configuration config = configs.get(i);
+
+                //The writer gets no descriptors of its own, it only writes from the index once it is closed.
+                sinks.add(new QueuedSink(new DescriptorSink() {
+                    @Override
+                    public void accept(ClassDescriptor classDescriptor) {
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        writer.write(index, config);
+                    }
+                }, names.get(i)));
+            }
+        } finally {
+            new FanOutSink(sinks).close();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.writer;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.calrissian.restdoclet.model.ClassDescriptor;
+
+/**
+ * Hands the class descriptors to a sink which runs on its own thread, through a bounded queue.  The sink is also closed
+ * on that thread, so several queued sinks finish their output at the same time.
+ *
+ * The lazy parts of each descriptor are resolved on the calling thread before it is queued, so the javadoc model is
+ * read ahead while the writer formats the previous descriptors.  When the queue is full the caller waits for the
+ * writer, which bounds the number of resolved descriptors held at any time.
+ */
+public class QueuedSink implements DescriptorSink {
+
+    /**
+     * Number of descriptors which can be resolved ahead of the writer.
+     */
+    private static final int CAPACITY = 32;
+
+    //Marks the end of the descriptors, since the queue does not accept null.
+    private static final ClassDescriptor END = new ClassDescriptor(null, null, null, null);
+
+    private final BlockingQueue<ClassDescriptor> queue = new ArrayBlockingQueue<ClassDescriptor>(CAPACITY);
+    private final DescriptorSink delegate;
+    private final Thread thread;
+    private volatile Throwable failure;
+    private boolean finished = false;
+
+    public QueuedSink(DescriptorSink delegate, String name) {
+        this.delegate = delegate;
+        this.thread = new Thread(this::drain, "restdoclet-" + name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    @Override
+    public void accept(ClassDescriptor classDescriptor) throws IOException {
+        classDescriptor.resolve();
+        if (!offer(classDescriptor))
+            rethrow();
+    }
+
+    /**
+     * Lets the writer close the sink once it has taken every queued descriptor, without waiting for it.
+     */
+    public void finish() throws IOException {
+        if (!finished) {
+            finished = true;
+            offer(END);
+        }
+    }
+
+    /**
+     * Finishes the sink and waits for the writer to close it.
+     */
+    @Override
+    public void close() throws IOException {
+        finish();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the writer", e);
+        }
+
+        rethrow();
+    }
+
+    private boolean offer(ClassDescriptor classDescriptor) throws IOException {
+        try {
+            //Once the writer has stopped nothing takes from the queue, so stop waiting on it.
+            while (thread.isAlive())
+                if (queue.offer(classDescriptor, 100, TimeUnit.MILLISECONDS))
+                    return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the writer", e);
+        }
+
+        return false;
+    }
+
+    private void drain() {
+        try {
+            for (ClassDescriptor classDescriptor = queue.take(); classDescriptor != END;
+                 classDescriptor = queue.take())
+                delegate.accept(classDescriptor);
+        } catch (Throwable e) {
+            failure = e;
+        } finally {
+            try {
+                delegate.close();
+            } catch (Throwable e) {
+                if (failure == null)
+                    failure = e;
+            }
+        }
+    }
+
+    private void rethrow() throws IOException {
+        Throwable e = failure;
+        if (e instanceof IOException)
+            throw (IOException) e;
+        if (e instanceof RuntimeException)
+            throw (RuntimeException) e;
+        if (e instanceof Error)
+            throw (Error) e;
+        if (e != null)
+            throw new IOException(e);
+    }
+}
@@ -18,6 +18,7 @@ package org.calrissian.restdoclet.writer;
 
 import org.calrissian.restdoclet.Configuration;
 import org.calrissian.restdoclet.model.ClassDescriptor;
+import org.calrissian.restdoclet.model.EndpointIndex;
 
 import java.io.IOException;
 import java.util.Collection;
@@ -26,4 +27,21 @@ public interface Writer {
 
     public void write(Collection<ClassDescriptor> classDescriptors, Configuration config) throws IOException;
 
+    /**
+     * Writes the endpoints of an index which is shared with the other writers of the run.  Writers which do not need
+     * the lookups write the descriptors the index was built from.
+     */
+    public default void write(EndpointIndex index, Configuration config) throws IOException {
+        write(index.getDescriptors(), config);
+    }
+
+    /**
+     * Opens a sink which writes the descriptors as they are collected.  Writers which need every descriptor at once
+     * keep the default, which returns null.  They are given the index of the run instead, built once for all of them,
+     * through {@link #write(EndpointIndex, Configuration)}.
+     */
+    public default DescriptorSink open(Configuration config) throws IOException {
+        return null;
+    }
+
 }
@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.writer;
+
+/**
+ * Creates the writer of an output format.  Providers are found with {@link java.util.ServiceLoader} and should be
+ * cheap to load, since every provider is loaded to find the ones selected by name.  Only the selected writers are
+ * created, so the classes a writer depends on are not loaded unless its format is written.
+ */
+public interface WriterProvider {
+
+    /**
+     * The name used to select the writer with the {@code -o} option.
+     */
+    public String getName();
+
+    public Writer create();
+
+}
@@ -22,21 +22,26 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
-import java.io.Writer;
-import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
 
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.sun.javadoc.ClassDoc;
-import com.sun.javadoc.FieldDoc;
-import com.sun.javadoc.Type;
 import org.apache.commons.lang3.StringUtils;
 import org.calrissian.restdoclet.Configuration;
 import org.calrissian.restdoclet.model.ClassDescriptor;
+import org.calrissian.restdoclet.model.ClassRef;
 import org.calrissian.restdoclet.model.Endpoint;
+import org.calrissian.restdoclet.model.FieldRef;
 import org.calrissian.restdoclet.model.PathVar;
 import org.calrissian.restdoclet.model.QueryParam;
+import org.calrissian.restdoclet.model.TypeRef;
+import org.calrissian.restdoclet.util.Budget;
+import org.calrissian.restdoclet.util.BudgetExceededException;
+import org.calrissian.restdoclet.util.CommonUtils;
+import org.calrissian.restdoclet.util.DocCache;
+import org.calrissian.restdoclet.writer.DescriptorSink;
 
 import static org.calrissian.restdoclet.util.CommonUtils.close;
 import static org.calrissian.restdoclet.util.CommonUtils.copy;
@@ -54,13 +59,39 @@ public class SimpleHtmlWriter implements org.calrissian.restdoclet.writer.Writer
         writeHtml(classDescriptors, config);
     }
 
+    /**
+     * Writes each class as it is received, so only the open file is kept between classes.
+     */
+    @Override
+    public DescriptorSink open(final Configuration config) throws IOException {
+
+        if (config.isdefaultStyleSheet()) { generateStyleSheet(config); }
+
+        final PrintWriter out = openHtml(config);
+        return new DescriptorSink() {
+            @Override
+            public void accept(ClassDescriptor classDescriptor) throws IOException {
+                writeClass(out, classDescriptor, config);
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    writeFooter(out);
+                } finally {
+                    CommonUtils.close(out);
+                }
+            }
+        };
+    }
+
     private static void generateStyleSheet(Configuration config) throws IOException {
         InputStream in = null;
         OutputStream out = null;
         try {
 
             in = Thread.currentThread().getContextClassLoader().getResourceAsStream(DEFAULT_STYLESHEET);
-            out = new FileOutputStream(new File(config.getStyleSheet()));
+            out = new FileOutputStream(new File(config.getOutputDirectory(), config.getStyleSheet()));
 
             copy(in, out);
 
@@ -75,207 +106,271 @@ public class SimpleHtmlWriter implements org.calrissian.restdoclet.writer.Writer
         PrintWriter out = null;
 
         try {
-            out = new PrintWriter(new File(".", "index.html"), java.nio.charset.StandardCharsets.UTF_8.displayName());
+            out = openHtml(config);
 
-            out.println("<?xml version=\"1.0\" encoding=\"utf-8\" standalone=\"no\" ?>");
-            out.println("<!DOCTYPE html PUBLIC \"-//W3C//DTD XHTML 1.0 Strict//EN\"");
-            out.println("    \"http://www.w3.org/TR/xhtml1/DTD/xhtml1-strict.dtd\">");
+            for (ClassDescriptor classDescriptor : classDescriptors)
+                writeClass(out, classDescriptor, config);
 
-            out.println("<html xmlns=\"http://www.w3.org/1999/xhtml\">");
+            writeFooter(out);
 
-            out.println("<head>");
-            out.println("<meta http-equiv=\"Content-Type\" content=\"text/html; charset=utf-8\" />");
-            out.println("<title>" + config.getDocumentTitle() + "</title>");
-            out.println("<link rel='stylesheet' type='text/css' href=' " + config.getStyleSheet() + "'/>");
-            out.println("</head>");
+        } finally {
+            close(out);
+        }
+    }
 
-            out.println("<body>");
+    private static PrintWriter openHtml(Configuration config) throws IOException {
+        PrintWriter out = new PrintWriter(new File(config.getOutputDirectory(), "index.html"), java.nio.charset.StandardCharsets.UTF_8.displayName());
 
-            out.println("<div id=\"wrapper\">");
-            out.println("<div id=\"container\">");
+        out.println("<?xml version=\"1.0\" encoding=\"utf-8\" standalone=\"no\" ?>");
+        out.println("<!DOCTYPE html PUBLIC \"-//W3C//DTD XHTML 1.0 Strict//EN\"");
+        out.println("    \"http://www.w3.org/TR/xhtml1/DTD/xhtml1-strict.dtd\">");
 
-            out.println("<h1>" + config.getDocumentTitle() + "</h1>");
-            out.println("<hr />");
+        out.println("<html xmlns=\"http://www.w3.org/1999/xhtml\">");
 
-            for (ClassDescriptor classDescriptor : classDescriptors) {
-                out.println("<div id='" + classDescriptor.getName().replace(" ", "_") + "'>");
-                out.println("<h3>" + classDescriptor.getName() + "</h3>");
-                out.print("<div class=\"bean_description\">" + classDescriptor.getDescription() + "</div>");
+        out.println("<head>");
+        out.println("<meta http-equiv=\"Content-Type\" content=\"text/html; charset=utf-8\" />");
+        out.println("<title>" + config.getDocumentTitle() + "</title>");
+        out.println("<link rel='stylesheet' type='text/css' href=' " + config.getStyleSheet() + "'/>");
+        out.println("</head>");
 
-                for (Endpoint endpoint : classDescriptor.getEndpoints()) {
-                    out.println("<table class=\"endpoint\">");
-                    out.println("<colgroup>");
-                    out.println("<col style=\"width: 10%;\" />");
-                    out.println("<col style=\"width: 90%;\" />");
-                    out.println("</colgroup>");
-                    out.println("<tr>");
-                    out.println("<th>Method</th>");
-                    out.println("<th>Path</th>");
-                    out.println("</tr>");
-                    out.println("<tr>");
-                    out.println("<td class=\"field_format\">" + endpoint.getHttpMethod() + "</td>");
-                    out.println("<td class=\"field_format\">" + endpoint.getPath() + "</td>");
-                    out.println("</tr>");
-                    out.println("<tr>");
-                    out.println("<th colspan=\"2\">REST Point Information</th>");
-                    out.println("</tr>");
-                    out.println("<tr>");
-                    out.println("<td colspan=\"2\">");
-
-                    if (!isEmpty(endpoint.getPathVars())) {
-
-                        out.println("<div class=\"info_title\">Path Variables</div>");
-                        out.println("<table width=\"100%\" class=\"list\">");
-                        for (PathVar pathVar : endpoint.getPathVars()) {
-                            out.println("<tr>");
-                            out.println("<td class=\"code_format\">" + pathVar.getName() + "</td>");
-                            out.println("<td class=\"descr_format\">" + pathVar.getDescription() + "</td>");
-                            out.println("</tr>");
-                        }
-                        out.println("</table>");
-                    }
+        out.println("<body>");
 
-                    if (!isEmpty(endpoint.getQueryParams())) {
+        out.println("<div id=\"wrapper\">");
+        out.println("<div id=\"container\">");
 
-                        out.println("<div class=\"info_title\">Query Parameters</div>");
-                        out.println("<table width=\"100%\" class=\"list\">");
-                        for (QueryParam queryParam : endpoint.getQueryParams()) {
-                            out.println("<tr>");
-                            out.println("<td class=\"code_format\">" + queryParam.getName() + (queryParam.isRequired()
-                                ? " (required)" : "") + "</td>");
+        out.println("<h1>" + config.getDocumentTitle() + "</h1>");
+        out.println("<hr />");
 
-                            Type type = queryParam.getType();
-                            if (isPrimitiveLikeType(type)) {
-                                out.println("<td>" + queryParam.getType().simpleTypeName() + "</td>");
-                            } else {
-                                out.println("<td><pre>");
+        return out;
+    }
 
-                                StringWriter writer = new StringWriter();
-                                writePojoParam(writer, queryParam.getType().asClassDoc(), null);
-                                out.println(writer.toString());
+    private static void writeClass(PrintWriter out, ClassDescriptor classDescriptor, Configuration config)
+        throws IOException {
 
-                                out.println("</pre></td>");
-                            }
+        out.println("<div id='" + classDescriptor.getName().replace(" ", "_") + "'>");
+        out.println("<h3>" + classDescriptor.getName() + "</h3>");
+        out.print("<div class=\"bean_description\">" + classDescriptor.getDescription() + "</div>");
+
+        for (Endpoint endpoint : classDescriptor.getEndpoints()) {
+            out.println("<table class=\"endpoint\">");
+            out.println("<colgroup>");
+            out.println("<col style=\"width: 10%;\" />");
+            out.println("<col style=\"width: 90%;\" />");
+            out.println("</colgroup>");
+            out.println("<tr>");
+            out.println("<th>Method</th>");
+            out.println("<th>Path</th>");
+            out.println("</tr>");
+            out.println("<tr>");
+            out.println("<td class=\"field_format\">" + endpoint.getHttpMethod() + "</td>");
+            out.println("<td class=\"field_format\">" + endpoint.getPath() + "</td>");
+            out.println("</tr>");
+            out.println("<tr>");
+            out.println("<th colspan=\"2\">REST Point Information</th>");
+            out.println("</tr>");
+            out.println("<tr>");
+            out.println("<td colspan=\"2\">");
+
+            if (!isEmpty(endpoint.getPathVars())) {
+
+                out.println("<div class=\"info_title\">Path Variables</div>");
+                out.println("<table width=\"100%\" class=\"list\">");
+                for (PathVar pathVar : endpoint.getPathVars()) {
+                    out.println("<tr>");
+                    out.println("<td class=\"code_format\">" + pathVar.getName() + "</td>");
+                    out.println("<td class=\"descr_format\">" + pathVar.getDescription() + "</td>");
+                    out.println("</tr>");
+                }
+                out.println("</table>");
+            }
 
-                            out.println("<td class=\"descr_format\">" + queryParam.getDescription() + "</td>");
-                            out.println("</tr>");
-                        }
-                        out.println("</table>");
-                    }
+            if (!isEmpty(endpoint.getQueryParams())) {
 
-                    if (endpoint.getRequestBody() != null &&
-                        !isEmpty(endpoint.getRequestBody().getDescription())) {
-                        out.println("<div class=\"info_title\">Request Body</div>");
-                        out.println("<table width=\"100%\" class=\"list\">");
-                        out.println("<tr>");
-                        out.println("<td class=\"code_format\">" + endpoint.getRequestBody().getName() + "</td>");
-                        out.println(
-                            "<td class=\"descr_format\">" + endpoint.getRequestBody().getDescription() + "</td>");
-                        out.println("</tr>");
-                        out.println("</table>");
-                    }
+                out.println("<div class=\"info_title\">Query Parameters</div>");
+                out.println("<table width=\"100%\" class=\"list\">");
+                for (QueryParam queryParam : endpoint.getQueryParams()) {
+                    out.println("<tr>");
+                    out.println("<td class=\"code_format\">" + queryParam.getName() + (queryParam.isRequired()
+                        ? " (required)" : "") + "</td>");
 
-                    if (!isEmpty(endpoint.getConsumes())) {
-                        out.println("<div class=\"info_title\">Consumes</div>");
-                        out.println("<table width=\"100%\" class=\"list\">");
-                        for (String acceptType : endpoint.getConsumes()) {
-                            out.println("<tr>");
-                            out.println("<td class=\"code_format\">" + acceptType + "</td>");
-                            out.println("</tr>");
-                        }
-                        out.println("</table>");
-                    }
+                    TypeRef type = queryParam.getType();
+                    if (isPrimitiveLikeType(type)) {
+                        out.println("<td>" + queryParam.getType().getSimpleName() + "</td>");
+                    } else {
+                        out.println("<td><pre>");
 
-                    if (!isEmpty(endpoint.getProduces())) {
-                        out.println("<div class=\"info_title\">Produces</div>");
-                        out.println("<table width=\"100%\" class=\"list\">");
-                        for (String outputType : endpoint.getProduces()) {
-                            out.println("<tr>");
-                            out.println("<td class=\"code_format\">" + outputType + "</td>");
-                            out.println("</tr>");
-                        }
-                        out.println("</table>");
+                        out.println(writePojo(type, config));
+
+                        out.println("</pre></td>");
                     }
 
-                    out.println("<div class=\"info_title\">Description</div>");
-                    out.println("<div class=\"info_text\">" + endpoint.getDescription() + "</div>");
-                    out.println("</td>");
+                    out.println("<td class=\"descr_format\">" + queryParam.getDescription() + "</td>");
                     out.println("</tr>");
-                    out.println("</table>");
+                }
+                out.println("</table>");
+            }
+
+            if (endpoint.getRequestBody() != null &&
+                !isEmpty(endpoint.getRequestBody().getDescription())) {
+                out.println("<div class=\"info_title\">Request Body</div>");
+                out.println("<table width=\"100%\" class=\"list\">");
+                out.println("<tr>");
+                out.println("<td class=\"code_format\">" + endpoint.getRequestBody().getName() + "</td>");
+                out.println(
+                    "<td class=\"descr_format\">" + endpoint.getRequestBody().getDescription() + "</td>");
+                out.println("</tr>");
+                out.println("</table>");
+            }
 
+            if (!isEmpty(endpoint.getConsumes())) {
+                out.println("<div class=\"info_title\">Consumes</div>");
+                out.println("<table width=\"100%\" class=\"list\">");
+                for (String acceptType : endpoint.getConsumes()) {
+                    out.println("<tr>");
+                    out.println("<td class=\"code_format\">" + acceptType + "</td>");
+                    out.println("</tr>");
                 }
+                out.println("</table>");
+            }
 
-                out.println("</div>");
-                out.println("<hr />");
+            if (!isEmpty(endpoint.getProduces())) {
+                out.println("<div class=\"info_title\">Produces</div>");
+                out.println("<table width=\"100%\" class=\"list\">");
+                for (String outputType : endpoint.getProduces()) {
+                    out.println("<tr>");
+                    out.println("<td class=\"code_format\">" + outputType + "</td>");
+                    out.println("</tr>");
+                }
+                out.println("</table>");
             }
 
-            out.println("</div>");
-            out.println("</div>");
-            out.println("</body>");
-            out.println("</html>");
+            out.println("<div class=\"info_title\">Description</div>");
+            out.println("<div class=\"info_text\">" + endpoint.getDescription() + "</div>");
+            out.println("</td>");
+            out.println("</tr>");
+            out.println("</table>");
+
+        }
 
+        out.println("</div>");
+        out.println("<hr />");
+    }
+
+    private static void writeFooter(PrintWriter out) {
+        out.println("</div>");
+        out.println("</div>");
+        out.println("</body>");
+        out.println("</html>");
+    }
+
+    /**
+     * Print pojo as json string format, within the time and depth budget of the configuration.  A pojo which exceeds
+     * the budget is printed as its type name.
+     *
+     * @param type
+     *     pojo type
+     * @param config
+     *     configuration
+     *
+     * @throws IOException
+     *     io exception
+     */
+    private static String writePojo(TypeRef type, Configuration config) throws IOException {
+        Budget.start("Type " + type.getQualifiedName(), config.getTimeBudget(), config.getDepthBudget());
+        try {
+            StringWriter writer = new StringWriter();
+            JsonGenerator json = new ObjectMapper().getFactory().createGenerator(writer)
+                .useDefaultPrettyPrinter();
+            writePojoParam(json, type, null, new HashSet<ClassRef>());
+            json.close();
+            return writer.toString();
+        } catch (BudgetExceededException e) {
+            warn(config, e.getMessage() + ", printing its name instead");
+        } catch (StackOverflowError e) {
+            warn(config, "Type " + type.getQualifiedName() + " is nested too deeply, printing its name instead");
         } finally {
-            close(out);
+            Budget.end();
         }
+
+        return "[" + type.getSimpleName() + "]";
     }
 
     /**
      * Print pojo as json string format.
      *
-     * @param writer
-     *     writer
+     * @param json
+     *     json generator shared by the nested pojos
      * @param type
      *     pojo type
      * @param fieldName
      *     field name
+     * @param expanding
+     *     pojo types being printed by the enclosing calls
      *
      * @throws IOException
      *     io exception
      */
-    private static void writePojoParam(Writer writer, ClassDoc type, String fieldName) throws IOException {
-        ObjectMapper obj = new ObjectMapper();
-        JsonGenerator json = obj.getFactory().createGenerator(writer)
-            .useDefaultPrettyPrinter();
+    private static void writePojoParam(JsonGenerator json, TypeRef type, String fieldName, Set<ClassRef> expanding)
+        throws IOException {
+        // A pojo which refers back to one of the enclosing pojos would never end, so only print its type name.
+        ClassRef classRef = type.getClassRef();
+        if (classRef == null || expanding.contains(classRef)) {
+            if (fieldName != null) {
+                json.writeStringField(fieldName, "[" + type.getSimpleName() + "]");
+            } else {
+                json.writeString("[" + type.getSimpleName() + "]");
+            }
+            return;
+        }
 
         if (fieldName != null) {
             json.writeFieldName(fieldName);
         }
 
-        json.writeStartObject();
-        for (FieldDoc fieldDoc : type.fields(false)) {
-            // Only fields which has setter
-            if (Arrays.stream(type.methods()).anyMatch(
-                (m) -> StringUtils.equalsIgnoreCase(m.name(), "set" + fieldDoc.name()))) {
-                if (isPrimitiveLikeType(fieldDoc.type())) {
-                    json.writeStringField(fieldDoc.name(),
-                        "[" + fieldDoc.type().simpleTypeName() + "]" + fieldDoc.commentText());
-                } else {
-                    writePojoParam(writer, fieldDoc.type().asClassDoc(), fieldDoc.name());
-                }
-            }
-        }
-
-        // Has super class，then print fields of the super class.
-        if (type.superclass() != null) {
+        Budget.enter();
+        expanding.add(classRef);
+        try {
+            json.writeStartObject();
+            writeFields(json, classRef, expanding);
 
-            for (FieldDoc fieldDoc : type.superclass().fields(false)) {
-                // Only fields which has setter
-                if (Arrays.stream(type.superclass().methods()).anyMatch(
-                    (m) -> StringUtils.equalsIgnoreCase(m.name(), "set" + fieldDoc.name()))) {
+            // Has super class，then print fields of the super class.
+            ClassRef superclass = classRef.getSuperclass();
+            if (superclass != null) {
+                writeFields(json, superclass, expanding);
+            }
 
-                    if (isPrimitiveLikeType(fieldDoc.type())) {
-                        json.writeStringField(fieldDoc.name(),
-                            "[" + fieldDoc.type().simpleTypeName() + "]" + fieldDoc.commentText());
-                    } else {
-                        writePojoParam(writer, fieldDoc.type().asClassDoc(), fieldDoc.name());
-                    }
+            json.writeEndObject();
+        } finally {
+            expanding.remove(classRef);
+            Budget.exit();
+        }
+    }
 
+    private static void writeFields(JsonGenerator json, ClassRef classRef, Set<ClassRef> expanding)
+        throws IOException {
+        for (FieldRef field : classRef.getFields()) {
+            // Only fields which has setter
+            if (field.isSettable()) {
+                if (isPrimitiveLikeType(field.getType())) {
+                    json.writeStringField(field.getName(),
+                        "[" + field.getType().getSimpleName() + "]" + field.getDescription());
+                } else {
+                    writePojoParam(json, field.getType(), field.getName(), expanding);
                 }
             }
         }
+    }
 
-        json.writeEndObject();
-        json.close();
+    private static void warn(final Configuration config, final String message) {
+        if (config.getReporter() != null) {
+            //The reporter is part of the javadoc model, and the writer can run alongside the collectors.
+            DocCache.read(() -> {
+                config.getReporter().printWarning(message);
+                return null;
+            });
+        } else {
+            System.err.println("warning - " + message);
+        }
     }
 
     /**
@@ -286,10 +381,10 @@ public class SimpleHtmlWriter implements org.calrissian.restdoclet.writer.Writer
      *
      * @return true if the type is primitive or sort of type.
      */
-    private static boolean isPrimitiveLikeType(Type type) {
+    private static boolean isPrimitiveLikeType(TypeRef type) {
         return type.isPrimitive() || StringUtils.startsWith(
-            type.qualifiedTypeName(), "java.lang.") || StringUtils.startsWith(
-            type.qualifiedTypeName(), "java.util.");
+            type.getQualifiedName(), "java.lang.") || StringUtils.startsWith(
+            type.getQualifiedName(), "java.util.");
     }
 
 }
@@ -0,0 +1,241 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.writer.snapshot;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.calrissian.restdoclet.model.ClassDescriptor;
+import org.calrissian.restdoclet.model.ClassRef;
+import org.calrissian.restdoclet.model.Endpoint;
+import org.calrissian.restdoclet.model.EndpointCore;
+import org.calrissian.restdoclet.model.FieldRef;
+import org.calrissian.restdoclet.model.PathVar;
+import org.calrissian.restdoclet.model.QueryParam;
+import org.calrissian.restdoclet.model.TypeRef;
+import org.calrissian.restdoclet.writer.DescriptorSink;
+
+import static org.calrissian.restdoclet.writer.snapshot.SnapshotWriter.*;
+
+/**
+ * Streams class descriptors into the snapshot format described by {@link SnapshotWriter}.
+ *
+ * Classes can refer to each other through their fields, so the classes of a record are all created before any of
+ * their fields are read.  A superclass is always written before its subclasses, since a class is created with it.
+ */
+class SnapshotEncoder implements DescriptorSink {
+
+    private final DataOutputStream out;
+    private final Map<String, Integer> strings = new HashMap<String, Integer>();
+    private final Map<ClassRef, Integer> classes = new IdentityHashMap<ClassRef, Integer>();
+    private final Map<EndpointCore, Integer> cores = new IdentityHashMap<EndpointCore, Integer>();
+
+    SnapshotEncoder(OutputStream out) throws IOException {
+        this.out = new DataOutputStream(out);
+        this.out.writeInt(MAGIC);
+        this.out.writeInt(VERSION);
+    }
+
+    @Override
+    public void accept(ClassDescriptor classDescriptor) throws IOException {
+        List<ClassRef> added = new ArrayList<ClassRef>();
+        for (Endpoint endpoint : classDescriptor.getEndpoints()) {
+            EndpointCore core = endpoint.getCore();
+            for (QueryParam queryParam : core.getQueryParams())
+                addClasses(queryParam.getType(), added);
+            for (PathVar pathVar : core.getPathVars())
+                addClasses(pathVar.getType(), added);
+            if (core.getRequestBody() != null)
+                addClasses(core.getRequestBody().getType(), added);
+            addClasses(core.getType(), added);
+        }
+
+        if (!added.isEmpty())
+            writeClasses(added);
+
+        out.writeByte(DESCRIPTOR_RECORD);
+        writeString(classDescriptor.getName());
+        writeString(classDescriptor.getContextPath());
+        writeString(classDescriptor.getDescription());
+        writeString(classDescriptor.getQualifiedName());
+        writeVarInt(classDescriptor.getEndpoints().size());
+        for (Endpoint endpoint : classDescriptor.getEndpoints()) {
+            writeString(endpoint.getPath());
+            writeString(endpoint.getHttpMethod());
+            writeCore(endpoint.getCore());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            out.writeByte(END_RECORD);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Numbers the classes of the type which were not written yet, superclasses first.
+     */
+    private void addClasses(TypeRef type, List<ClassRef> added) {
+        if (type == null)
+            return;
+
+        for (TypeRef typeArgument : type.getTypeArguments())
+            addClasses(typeArgument, added);
+        addClass(type.getClassRef(), added);
+    }
+
+    private void addClass(ClassRef classRef, List<ClassRef> added) {
+        if (classRef == null || classes.containsKey(classRef))
+            return;
+
+        //The fields of the superclass may have led back to this class.
+        addClass(classRef.getSuperclass(), added);
+        if (classes.containsKey(classRef))
+            return;
+
+        classes.put(classRef, classes.size());
+        added.add(classRef);
+        for (FieldRef field : classRef.getFields())
+            addClasses(field.getType(), added);
+    }
+
+    private void writeClasses(List<ClassRef> added) throws IOException {
+        out.writeByte(CLASSES_RECORD);
+        writeVarInt(added.size());
+        for (ClassRef classRef : added) {
+            writeString(classRef.getQualifiedName());
+            writeStrings(classRef.getSupertypes());
+            writeStrings(classRef.getEnumConstants());
+            writeClassRef(classRef.getSuperclass());
+        }
+
+        for (ClassRef classRef : added) {
+            writeVarInt(classRef.getFields().size());
+            for (FieldRef field : classRef.getFields()) {
+                writeString(field.getName());
+                writeType(field.getType());
+                writeString(field.getDescription());
+                out.writeBoolean(field.isSettable());
+            }
+        }
+    }
+
+    private void writeCore(EndpointCore core) throws IOException {
+        Integer id = cores.get(core);
+        if (id != null) {
+            writeVarInt(id + 1);
+            return;
+        }
+
+        cores.put(core, cores.size());
+        writeVarInt(0);
+
+        writeVarInt(core.getQueryParams().size());
+        for (QueryParam queryParam : core.getQueryParams()) {
+            writeString(queryParam.getName());
+            out.writeBoolean(queryParam.isRequired());
+            writeString(queryParam.getDescription());
+            writeType(queryParam.getType());
+        }
+
+        writeVarInt(core.getPathVars().size());
+        for (PathVar pathVar : core.getPathVars()) {
+            writeString(pathVar.getName());
+            writeString(pathVar.getDescription());
+            writeType(pathVar.getType());
+        }
+
+        out.writeBoolean(core.getRequestBody() != null);
+        if (core.getRequestBody() != null) {
+            writeString(core.getRequestBody().getName());
+            writeString(core.getRequestBody().getDescription());
+            writeType(core.getRequestBody().getType());
+        }
+
+        writeStrings(core.getConsumes());
+        writeStrings(core.getProduces());
+        writeString(core.getShortDescription());
+        writeString(core.getDescription());
+        writeType(core.getType());
+    }
+
+    private void writeType(TypeRef type) throws IOException {
+        if (type == null) {
+            writeVarInt(0);
+            return;
+        }
+
+        writeVarInt(type.getKind().ordinal() + 1);
+        writeString(type.getQualifiedName());
+        writeString(type.getSimpleName());
+        writeString(type.getDimension());
+        writeVarInt(type.getTypeArguments().size());
+        for (TypeRef typeArgument : type.getTypeArguments())
+            writeType(typeArgument);
+        writeClassRef(type.getClassRef());
+    }
+
+    private void writeClassRef(ClassRef classRef) throws IOException {
+        writeVarInt(classRef == null ? 0 : classes.get(classRef) + 1);
+    }
+
+    private void writeStrings(Collection<String> values) throws IOException {
+        writeVarInt(values.size());
+        for (String value : values)
+            writeString(value);
+    }
+
+    /**
+     * Writes 0 for null, 1 followed by the text for a new string, or the number of a string already written plus 2.
+     */
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+
+        Integer id = strings.get(value);
+        if (id != null) {
+            writeVarInt(id + 2);
+            return;
+        }
+
+        strings.put(value, strings.size());
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(1);
+        writeVarInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private void writeVarInt(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+}
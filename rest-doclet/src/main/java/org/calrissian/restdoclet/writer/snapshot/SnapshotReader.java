@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.writer.snapshot;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import org.calrissian.restdoclet.model.ClassDescriptor;
+import org.calrissian.restdoclet.model.ClassRef;
+import org.calrissian.restdoclet.model.Endpoint;
+import org.calrissian.restdoclet.model.EndpointCore;
+import org.calrissian.restdoclet.model.FieldRef;
+import org.calrissian.restdoclet.model.PathVar;
+import org.calrissian.restdoclet.model.QueryParam;
+import org.calrissian.restdoclet.model.RequestBody;
+import org.calrissian.restdoclet.model.TypeRef;
+import org.calrissian.restdoclet.util.Lazy;
+import org.calrissian.restdoclet.util.PathTrie;
+import org.calrissian.restdoclet.writer.DescriptorSink;
+
+import static org.calrissian.restdoclet.writer.snapshot.SnapshotWriter.*;
+
+/**
+ * Reads a snapshot written by {@link SnapshotWriter}, handing each class descriptor to a sink as soon as it is read.
+ * Paths are interned in the current path trie, so the descriptors can be written like freshly collected ones.
+ */
+public class SnapshotReader {
+
+    private final DataInputStream in;
+    private final List<String> strings = new ArrayList<String>();
+    private final List<ClassRef> classes = new ArrayList<ClassRef>();
+    private final List<EndpointCore> cores = new ArrayList<EndpointCore>();
+
+    public SnapshotReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(in);
+
+        if (this.in.readInt() != MAGIC)
+            throw new IOException("Not an endpoint snapshot");
+
+        int version = this.in.readInt();
+        if (version != VERSION)
+            throw new IOException("Unsupported snapshot version " + version + ", expected " + VERSION);
+    }
+
+    /**
+     * Reads every descriptor of the snapshot into the sink.  The sink is not closed.
+     */
+    public void read(DescriptorSink sink) throws IOException {
+        for (int record = in.readByte(); record != END_RECORD; record = in.readByte()) {
+            if (record == CLASSES_RECORD)
+                readClasses();
+            else if (record == DESCRIPTOR_RECORD)
+                sink.accept(readDescriptor());
+            else
+                throw new IOException("Corrupt snapshot, unknown record " + record);
+        }
+    }
+
+    /**
+     * Reads the single class descriptor encoded by {@link SnapshotWriter#encode}.
+     */
+    public static ClassDescriptor decode(byte[] snapshot) throws IOException {
+        final List<ClassDescriptor> result = new ArrayList<ClassDescriptor>(1);
+        new SnapshotReader(new ByteArrayInputStream(snapshot)).read(new DescriptorSink() {
+            @Override
+            public void accept(ClassDescriptor classDescriptor) {
+                result.add(classDescriptor);
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+
+        if (result.size() != 1)
+            throw new IOException("Expected a single class descriptor, found " + result.size());
+
+        return result.get(0);
+    }
+
+    private void readClasses() throws IOException {
+        int count = readVarInt();
+
+        //The fields are added once every class of the record exists, like the snapshot builder does.
+        List<List<FieldRef>> fields = new ArrayList<List<FieldRef>>(count);
+        for (int i = 0; i < count; i++) {
+            String qualifiedName = readString();
+            LinkedHashSet<String> supertypes = new LinkedHashSet<String>(readStrings());
+            List<String> enumConstants = readStrings();
+            ClassRef superclass = readClassRef();
+
+            List<FieldRef> classFields = new ArrayList<FieldRef>();
+            fields.add(classFields);
+            classes.add(new ClassRef(qualifiedName, supertypes, enumConstants, classFields, superclass));
+        }
+
+        for (List<FieldRef> classFields : fields) {
+            int fieldCount = readVarInt();
+            for (int i = 0; i < fieldCount; i++)
+                classFields.add(new FieldRef(readString(), readType(), readString(), in.readBoolean()));
+        }
+    }
+
+    private ClassDescriptor readDescriptor() throws IOException {
+        String name = readString();
+        String contextPath = readString();
+        String description = readString();
+        String qualifiedName = readString();
+
+        int count = readVarInt();
+        List<Endpoint> endpoints = new ArrayList<Endpoint>(count);
+        for (int i = 0; i < count; i++)
+            endpoints.add(new Endpoint(PathTrie.intern(readString()), readString(), readCore()));
+
+        return new ClassDescriptor(name, contextPath, endpoints, description, qualifiedName);
+    }
+
+    private EndpointCore readCore() throws IOException {
+        int id = readVarInt();
+        if (id > 0)
+            return get(cores, id - 1, "core");
+
+        int count = readVarInt();
+        List<QueryParam> queryParams = new ArrayList<QueryParam>(count);
+        for (int i = 0; i < count; i++)
+            queryParams.add(new QueryParam(readString(), in.readBoolean(), readString(), readType()));
+
+        count = readVarInt();
+        List<PathVar> pathVars = new ArrayList<PathVar>(count);
+        for (int i = 0; i < count; i++)
+            pathVars.add(new PathVar(readString(), readString(), readType()));
+
+        RequestBody requestBody = (in.readBoolean() ? new RequestBody(readString(), readString(), readType()) : null);
+
+        EndpointCore core = new EndpointCore(
+                Lazy.<Collection<QueryParam>>value(queryParams),
+                Lazy.<Collection<PathVar>>value(pathVars),
+                Lazy.value(requestBody),
+                readStrings(),
+                readStrings(),
+                Lazy.value(readString()),
+                Lazy.value(readString()),
+                readType()
+        );
+        cores.add(core);
+
+        return core;
+    }
+
+    private TypeRef readType() throws IOException {
+        int kind = readVarInt();
+        if (kind == 0)
+            return null;
+        if (kind > TypeRef.Kind.values().length)
+            throw new IOException("Corrupt snapshot, unknown type kind " + kind);
+
+        String qualifiedName = readString();
+        String simpleName = readString();
+        String dimension = readString();
+
+        int count = readVarInt();
+        List<TypeRef> typeArguments = new ArrayList<TypeRef>(count);
+        for (int i = 0; i < count; i++)
+            typeArguments.add(readType());
+
+        return new TypeRef(TypeRef.Kind.values()[kind - 1], qualifiedName, simpleName, dimension, typeArguments,
+                readClassRef());
+    }
+
+    private ClassRef readClassRef() throws IOException {
+        int id = readVarInt();
+        return (id == 0 ? null : get(classes, id - 1, "class"));
+    }
+
+    private List<String> readStrings() throws IOException {
+        int count = readVarInt();
+        List<String> values = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++)
+            values.add(readString());
+
+        return values;
+    }
+
+    private String readString() throws IOException {
+        int id = readVarInt();
+        if (id == 0)
+            return null;
+        if (id > 1)
+            return get(strings, id - 2, "string");
+
+        byte[] bytes = new byte[readVarInt()];
+        in.readFully(bytes);
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        strings.add(value);
+
+        return value;
+    }
+
+    private int readVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+
+        throw new IOException("Corrupt snapshot, malformed number");
+    }
+
+    private static <T> T get(List<T> values, int id, String kind) throws IOException {
+        if (id >= values.size())
+            throw new IOException("Corrupt snapshot, unknown " + kind + " " + id);
+
+        return values.get(id);
+    }
+}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.writer.snapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+
+import org.calrissian.restdoclet.Configuration;
+import org.calrissian.restdoclet.model.ClassDescriptor;
+import org.calrissian.restdoclet.writer.DescriptorSink;
+import org.calrissian.restdoclet.writer.Writer;
+
+/**
+ * Writes the collected endpoints to a binary snapshot, which can be rendered again with any other writer without
+ * running javadoc, see {@link org.calrissian.restdoclet.SnapshotRenderer}.
+ *
+ * The snapshot starts with a magic number and the format version, followed by one record per class descriptor.  The
+ * classes used by the types of a descriptor are written in a record of their own before it.  Strings, classes and
+ * endpoint cores are written once and referred to by number afterwards.  Readers reject any other version.
+ */
+public class SnapshotWriter implements Writer {
+    public static final String OUTPUT_OPTION_NAME = "snapshot";
+    public static final String SNAPSHOT_FILE = "endpoints.snapshot";
+
+    static final int MAGIC = 0x52455354;
+    static final int VERSION = 1;
+
+    static final int END_RECORD = 0;
+    static final int CLASSES_RECORD = 1;
+    static final int DESCRIPTOR_RECORD = 2;
+
+    @Override
+    public void write(Collection<ClassDescriptor> classDescriptors, Configuration config) throws IOException {
+        DescriptorSink sink = open(config);
+        try {
+            for (ClassDescriptor classDescriptor : classDescriptors)
+                sink.accept(classDescriptor);
+        } finally {
+            sink.close();
+        }
+    }
+
+    /**
+     * Encodes a single class descriptor as a snapshot of its own, which {@link SnapshotReader#decode} turns back into
+     * the descriptor.
+     */
+    public static byte[] encode(ClassDescriptor classDescriptor) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SnapshotEncoder encoder = new SnapshotEncoder(out);
+        try {
+            encoder.accept(classDescriptor);
+        } finally {
+            encoder.close();
+        }
+
+        return out.toByteArray();
+    }
+
+    /**
+     * Encodes each descriptor as it is received, so nothing but the numbering of the strings, classes and cores
+     * already written is kept.
+     */
+    @Override
+    public DescriptorSink open(Configuration config) throws IOException {
+        File file = new File(config.getOutputDirectory(), SNAPSHOT_FILE);
+        return new SnapshotEncoder(new BufferedOutputStream(new FileOutputStream(file)));
+    }
+}
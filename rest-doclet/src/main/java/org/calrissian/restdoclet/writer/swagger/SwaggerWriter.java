@@ -17,22 +17,30 @@ package org.calrissian.restdoclet.writer.swagger;
 
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.calrissian.restdoclet.Configuration;
 import org.calrissian.restdoclet.model.*;
+import org.calrissian.restdoclet.util.PathTrie;
+import org.calrissian.restdoclet.writer.DescriptorSink;
 import org.calrissian.restdoclet.writer.Writer;
 import org.calrissian.restdoclet.writer.swagger.model.*;
 
 import java.io.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.LinkedHashMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
-import static java.util.Map.Entry;
+import static org.calrissian.restdoclet.model.EndpointTable.sortRows;
 import static org.calrissian.restdoclet.util.CommonUtils.*;
 import static org.calrissian.restdoclet.writer.swagger.TypeUtils.*;
 
@@ -43,7 +51,7 @@ public class SwaggerWriter implements Writer {
     private static final String SWAGGER_CALLABLE_HTML = "swagger/index-callable.html";
     private static final String SWAGGER_UI_ARTIFACT = "swagger/swagger-ui.zip";
     private static final String SWAGGER_VERSION = "1.2";
-    private static final String RESOURCE_DOC = "./api-docs";
+    private static final String RESOURCE_DOC = "api-docs";
     private static final String API_DOC_DIR = "apis";
     private static ObjectMapper mapper = new ObjectMapper()
             .configure(SerializationFeature.WRITE_NULL_MAP_VALUES, false)
@@ -51,86 +59,190 @@ public class SwaggerWriter implements Writer {
 
     @Override
     public void write(Collection<ClassDescriptor> classDescriptors, Configuration config) throws IOException {
+        DescriptorSink sink = open(config);
+        try {
+            for (ClassDescriptor classDescriptor : classDescriptors)
+                sink.accept(classDescriptor);
+        } finally {
+            sink.close();
+        }
+    }
 
-        Map<String, Collection<Endpoint>> resources = new LinkedHashMap<String, Collection<Endpoint>>();
-        for (ClassDescriptor classDescriptor : classDescriptors) {
-            for (Endpoint endpoint : classDescriptor.getEndpoints()) {
-                String resourceName = getResource(classDescriptor.getContextPath(), endpoint);
-                if (resources.containsKey(resourceName)) {
-                    resources.get(resourceName).add(endpoint);
-                } else {
-                    Collection<Endpoint> tmp = new ArrayList<Endpoint>();
-                    tmp.add(endpoint);
-                    resources.put(resourceName, tmp);
+    /**
+     * Converts the endpoints of each class to swagger operations as it is received.  Each operation is kept only as
+     * its json, with the ids of its resource and path, until the sink is closed.  The rows are then grouped by
+     * resource and by path within each resource, in the order they are first seen, and the files are written.
+     */
+    @Override
+    public DescriptorSink open(final Configuration config) throws IOException {
+        return new DescriptorSink() {
+            private final OperationBuffer operations = new OperationBuffer();
+            private final List<PathNode> resources = new ArrayList<PathNode>();
+            private final Map<PathNode, Integer> resourceIds = new IdentityHashMap<PathNode, Integer>();
+            private final Map<PathNode, Integer> pathNodeIds = new IdentityHashMap<PathNode, Integer>();
+            private final List<PathNode> paths = new ArrayList<PathNode>();
+            private final Map<Long, Integer> pathIds = new HashMap<Long, Integer>();
+
+            private int[] resourceColumn = new int[16];
+            private int[] pathColumn = new int[16];
+            private int[] offsetColumn = new int[16];
+            private int size = 0;
+
+            @Override
+            public void accept(ClassDescriptor classDescriptor) throws IOException {
+                PathNode contextNode = PathTrie.intern(classDescriptor.getContextPath());
+                for (Endpoint endpoint : classDescriptor.getEndpoints()) {
+                    if (size == resourceColumn.length) {
+                        int capacity = size * 2;
+                        resourceColumn = Arrays.copyOf(resourceColumn, capacity);
+                        pathColumn = Arrays.copyOf(pathColumn, capacity);
+                        offsetColumn = Arrays.copyOf(offsetColumn, capacity);
+                    }
+
+                    PathNode resource = getResource(contextNode, endpoint.getPathNode());
+                    Integer resourceId = resourceIds.get(resource);
+                    if (resourceId == null) {
+                        resourceId = resources.size();
+                        resources.add(resource);
+                        resourceIds.put(resource, resourceId);
+                    }
+
+                    Integer pathNodeId = pathNodeIds.get(endpoint.getPathNode());
+                    if (pathNodeId == null) {
+                        pathNodeId = pathNodeIds.size();
+                        pathNodeIds.put(endpoint.getPathNode(), pathNodeId);
+                    }
+
+                    //A path can belong to more than one resource when the context paths differ, so the pair is the key.
+                    Long key = ((long) resourceId << 32) | pathNodeId;
+                    Integer pathId = pathIds.get(key);
+                    if (pathId == null) {
+                        pathId = paths.size();
+                        paths.add(endpoint.getPathNode());
+                        pathIds.put(key, pathId);
+                    }
+
+                    resourceColumn[size] = resourceId;
+                    pathColumn[size] = pathId;
+                    offsetColumn[size] = operations.size();
+                    mapper.writeValue(operations, getOperation(endpoint));
+                    size++;
                 }
             }
-        }
 
-        writeResource(resources, config);
-        copyIndex(config);
-        copySwagger();
-    }
+            @Override
+            public void close() throws IOException {
+                int[] rows = new int[size];
+                for (int row = 0; row < size; row++)
+                    rows[row] = row;
+
+                //Ids are given in the order they are first seen, so sorting the rows by them groups the rows without
+                //changing the order of the operations.
+                rows = sortRows(rows, pathColumn, paths.size());
+                rows = sortRows(rows, resourceColumn, resources.size());
 
+                for (int from = 0, to; from < rows.length; from = to) {
+                    to = endOfGroup(rows, resourceColumn, from);
 
+                    List<Api> apis = new ArrayList<Api>();
+                    List<ArrayNode> apiOperations = new ArrayList<ArrayNode>();
+                    for (int pathFrom = from, pathTo; pathFrom < to; pathFrom = pathTo) {
+                        pathTo = endOfGroup(rows, pathColumn, pathFrom);
 
-    private static void writeResource(Map<String, Collection<Endpoint>> resources, Configuration config) throws IOException {
+                        ArrayNode pathOperations = mapper.createArrayNode();
+                        for (int i = pathFrom; i < pathTo; i++)
+                            pathOperations.add(operations.read(offsetColumn[rows[i]], end(rows[i])));
+
+                        apis.add(new Api(paths.get(pathColumn[rows[pathFrom]]).getPath(), "", null));
+                        apiOperations.add(pathOperations);
+                    }
+
+                    writeApi(resources.get(resourceColumn[rows[from]]), apis, apiOperations, config);
+                }
+
+                writeResource(resources, config);
+                copyIndex(config);
+                copySwagger(config);
+            }
+
+            private int end(int row) {
+                return (row + 1 < size ? offsetColumn[row + 1] : operations.size());
+            }
+        };
+    }
+
+    private static void writeResource(Collection<PathNode> resources, Configuration config) throws IOException {
 
         ResourceListing resourceListing = new ResourceListing(SWAGGER_VERSION, config.getApiVersion(), config.getDocumentTitle());
-        for (Entry<String, Collection<Endpoint>> entry : resources.entrySet()) {
-            resourceListing.addApi("/../" + API_DOC_DIR + entry.getKey(), "");
-            writeApi(entry.getKey(), entry.getValue(), config);
-        }
+        for (PathNode resource : resources)
+            resourceListing.addApi("/../" + API_DOC_DIR + resource.getPath(), "");
 
-        mapper.writerWithDefaultPrettyPrinter().writeValue(new FileOutputStream(RESOURCE_DOC), resourceListing);
+        writeIfChanged(new File(config.getOutputDirectory(), RESOURCE_DOC),
+                mapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(resourceListing));
 
     }
 
-    private static void writeApi(String resource, Collection<Endpoint> endpoints, Configuration config) throws IOException {
-        Map<String, Collection<Endpoint>> pathGroups = groupPaths(endpoints);
+    /**
+     * Writes the listing of a resource.  The operations of each api are given separately, in the order of the apis, as
+     * they are only kept as json.
+     */
+    private static void writeApi(PathNode resource, List<Api> apis, List<ArrayNode> operations,
+                                 Configuration config) throws IOException {
 
-        File apiFile = new File("./" + API_DOC_DIR , resource);
+        File apiFile = new File(new File(config.getOutputDirectory(), API_DOC_DIR), resource.getPath());
         apiFile.getParentFile().mkdirs();
 
-        Collection<Api> apis = new ArrayList<Api>(pathGroups.size());
-        for (Entry<String, Collection<Endpoint>> entry : pathGroups.entrySet())
-            apis.add(new Api(entry.getKey(), "", getOperations(entry.getValue())));
+        ObjectNode listing = mapper.valueToTree(
+                new ApiListing(SWAGGER_VERSION, config.getUrl(), resource.getPath(), config.getApiVersion(), apis)
+        );
+        ArrayNode apiNodes = (ArrayNode) listing.get("apis");
+        for (int i = 0; i < operations.size(); i++)
+            ((ObjectNode) apiNodes.get(i)).set("operations", operations.get(i));
+
+        //Resources whose endpoints did not change produce the same listing, so their files are left alone.
+        writeIfChanged(apiFile, mapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(listing));
+    }
 
+    /**
+     * Will get the first path segment that follows the context path.  Will return the partial path as the resource id.
+     */
+    private static PathNode getResource(PathNode contextNode, PathNode path) {
+        //If the context path is not part of the path then simply ignore it.
+        int depth = (path.startsWith(contextNode) ? contextNode.getDepth() : 0);
+        return path.getAncestor(depth + 1);
+    }
 
-        mapper.writerWithDefaultPrettyPrinter().writeValue(new FileOutputStream(apiFile),
-                new ApiListing(SWAGGER_VERSION, config.getUrl(), resource, config.getApiVersion(), apis)
-        );
+    private static int endOfGroup(int[] rows, int[] keys, int from) {
+        int key = keys[rows[from]];
+        int to = from + 1;
+        while (to < rows.length && keys[rows[to]] == key)
+            to++;
+
+        return to;
     }
 
-    private static Collection<Operation> getOperations(Collection<Endpoint> endpoints) {
-        Collection<Operation> operations = new ArrayList<Operation>(endpoints.size());
-
-        for (Endpoint endpoint : endpoints) {
-            Collection<Parameter> params = new ArrayList<Parameter>();
-
-            for (PathVar pathVar : endpoint.getPathVars())
-                params.add(getParameter(pathVar));
-
-            for (QueryParam queryParam : endpoint.getQueryParams())
-                params.add(getParameter(queryParam));
-
-            if (endpoint.getRequestBody() != null)
-                params.add(getParameter(endpoint.getRequestBody()));
-
-            operations.add(
-                    new Operation(
-                            endpoint.getHttpMethod(),
-                            "nickname",
-                            endpoint.getShortDescription(),
-                            endpoint.getDescription(),
-                            dataType(endpoint.getType()),
-                            endpoint.getProduces(),
-                            endpoint.getConsumes(),
-                            params
-                    )
-            );
-        }
+    private static Operation getOperation(Endpoint endpoint) {
+        Collection<Parameter> params = new ArrayList<Parameter>();
+
+        for (PathVar pathVar : endpoint.getPathVars())
+            params.add(getParameter(pathVar));
 
-        return operations;
+        for (QueryParam queryParam : endpoint.getQueryParams())
+            params.add(getParameter(queryParam));
+
+        if (endpoint.getRequestBody() != null)
+            params.add(getParameter(endpoint.getRequestBody()));
+
+        return new Operation(
+                endpoint.getHttpMethod(),
+                "nickname",
+                endpoint.getShortDescription(),
+                endpoint.getDescription(),
+                dataType(endpoint.getType()),
+                endpoint.getProduces(),
+                endpoint.getConsumes(),
+                params
+        );
     }
 
     private static Parameter getParameter(PathVar pathVar) {
@@ -175,47 +287,8 @@ public class SwaggerWriter implements Writer {
         );
     }
 
-    private static Map<String, Collection<Endpoint>> groupPaths (Collection<Endpoint> endpoints) {
-        Map<String, Collection<Endpoint>> paths = new LinkedHashMap<String, Collection<Endpoint>>();
-        for (Endpoint endpoint : endpoints) {
-            if (paths.containsKey(endpoint.getPath())) {
-                paths.get(endpoint.getPath()).add(endpoint);
-            } else {
-                Collection<Endpoint> tmp = new ArrayList<Endpoint>();
-                tmp.add(endpoint);
-                paths.put(endpoint.getPath(), tmp);
-            }
-        }
-
-        return paths;
-    }
-
-    /**
-     * Will get the first path segment that follows the context path.  Will return the partial path as the resource id.
-     */
-    private static String getResource(String contextPath, Endpoint endpoint) {
-        if (endpoint == null || isEmpty(endpoint.getPath()))
-            return "/";
-
-        //Shouldn't need to do this, but being safe.
-        String tmp = fixPath(endpoint.getPath());
-
-        //First normalize the path then, if not part of the path then simply ignore it.
-        contextPath = fixPath(contextPath);
-        contextPath = (!tmp.startsWith(contextPath) ? "" : contextPath);
-
-        //remove the context path for evaluation
-        tmp = tmp.substring(contextPath.length());
-
-        if (tmp.indexOf("/", 1) > 0)
-            tmp = tmp.substring(0, tmp.indexOf("/", 1));
-
-        return contextPath + tmp;
-    }
-
     private static void copyIndex(Configuration config) throws IOException {
         InputStream in = null;
-        OutputStream out = null;
         try {
 
             if (config.hasUrl())
@@ -223,32 +296,43 @@ public class SwaggerWriter implements Writer {
             else
                 in = Thread.currentThread().getContextClassLoader().getResourceAsStream(SWAGGER_DEFAULT_HTML);
 
-            out = new FileOutputStream(new File(".", "index.html"));
-            copy(in, out);
+            writeIfChanged(new File(config.getOutputDirectory(), "index.html"), toByteArray(in));
 
         } finally {
-            close(in, out);
+            close(in);
         }
     }
 
-    private static void copySwagger() throws IOException {
+    private static void copySwagger(Configuration config) throws IOException {
         ZipInputStream swaggerZip = null;
-        FileOutputStream out = null;
         try{
             swaggerZip = new ZipInputStream(Thread.currentThread().getContextClassLoader().getResourceAsStream(SWAGGER_UI_ARTIFACT));
             ZipEntry entry;
             while ((entry = swaggerZip.getNextEntry()) != null) {
-                final File swaggerFile = new File(".", entry.getName());
+                final File swaggerFile = new File(config.getOutputDirectory(), entry.getName());
                 if (entry.isDirectory()) {
                     if (!swaggerFile.isDirectory() && !swaggerFile.mkdirs()) {
                         throw new RuntimeException("Unable to create directory: " + swaggerFile);
                     }
                 } else {
-                    copy(swaggerZip, new FileOutputStream(swaggerFile));
+                    writeIfChanged(swaggerFile, toByteArray(swaggerZip));
                 }
             }
         } finally {
-            close(swaggerZip, out);
+            close(swaggerZip);
+        }
+    }
+
+    /**
+     * The json of the operations, one after the other.  Each operation is read back by its offset.
+     */
+    private static class OperationBuffer extends ByteArrayOutputStream {
+        private OperationBuffer() {
+            super(4096);
+        }
+
+        private JsonNode read(int from, int to) throws IOException {
+            return mapper.readTree(new ByteArrayInputStream(buf, from, to - from));
         }
     }
 }
@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.writer.swagger;
+
+import org.calrissian.restdoclet.writer.Writer;
+import org.calrissian.restdoclet.writer.WriterProvider;
+
+public class SwaggerWriterProvider implements WriterProvider {
+
+    @Override
+    public String getName() {
+        return SwaggerWriter.OUTPUT_OPTION_NAME;
+    }
+
+    @Override
+    public Writer create() {
+        return new SwaggerWriter();
+    }
+}
@@ -16,18 +16,15 @@
 package org.calrissian.restdoclet.writer.swagger;
 
 
-import com.sun.javadoc.ClassDoc;
-import com.sun.javadoc.FieldDoc;
-import com.sun.javadoc.ParameterizedType;
-import com.sun.javadoc.Type;
+import org.calrissian.restdoclet.model.ClassRef;
+import org.calrissian.restdoclet.model.TypeRef;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.Set;
 
 import static java.util.Collections.emptyList;
-import static org.calrissian.restdoclet.util.CommonUtils.isEmpty;
 
 class TypeUtils {
 
@@ -36,13 +33,13 @@ class TypeUtils {
      * @param type
      * @return
      */
-    public static String dataType(Type type) {
+    public static String dataType(TypeRef type) {
         if (type == null)
             return null;
 
         if (isContainer(type)) {
             //treat sets as sets
-            if (isType(type.asClassDoc(), Set.class))
+            if (isType(type.getClassRef(), Set.class))
                 return "Set[" + internalContainerType(type) + "]";
 
             return "List[" + internalContainerType(type) + "]";
@@ -57,17 +54,14 @@ class TypeUtils {
      * @param type
      * @return
      */
-    public static boolean isContainer(Type type) {
+    public static boolean isContainer(TypeRef type) {
 
         //first check for arrays
-        if (type.dimension() != null && !type.dimension().isEmpty())
+        if (type.isArray())
             return true;
 
         //treat iterables as lists
-        if (isType(type.asClassDoc(), Iterable.class))
-            return true;
-
-        return false;
+        return type.getClassRef() != null && type.getClassRef().isContainer();
     }
 
     /**
@@ -75,17 +69,14 @@ class TypeUtils {
      * @param type
      * @return
      */
-    public static String internalContainerType(Type type) {
+    public static String internalContainerType(TypeRef type) {
         //treat arrays first
-        if (type.dimension() != null && !type.dimension().isEmpty())
+        if (type.isArray())
             return basicType(type);
 
-        ParameterizedType pType = type.asParameterizedType();
-        if (pType != null) {
-            Type[] paramTypes = ((ParameterizedType)type).typeArguments();
-            if (!isEmpty(paramTypes))
-                return basicType(paramTypes[0]);
-        }
+        List<TypeRef> paramTypes = type.getTypeArguments();
+        if (!paramTypes.isEmpty())
+            return basicType(paramTypes.get(0));
 
         //TODO look into supporting models.
         return "Object";
@@ -96,15 +87,15 @@ class TypeUtils {
      * @param type
      * @return
      */
-    public static String basicType(Type type) {
+    public static String basicType(TypeRef type) {
         if (type == null)
             return "void";
 
         //next primitives
         if (type.isPrimitive())
-            return type.qualifiedTypeName();
+            return type.getQualifiedName();
 
-        String name = type.qualifiedTypeName();
+        String name = type.getQualifiedName();
 
         //Check the java.lang classes
         if (name.equals(String.class.getName()))
@@ -132,7 +123,7 @@ class TypeUtils {
             return "Date";
 
         //Process enums as strings.
-        if (!isEmpty(type.asClassDoc().enumConstants()))
+        if (type.getClassRef() != null && type.getClassRef().isEnum())
             return "string";
 
         //TODO look into supporting models.
@@ -144,43 +135,22 @@ class TypeUtils {
      * @param type
      * @return
      */
-    public static Collection<String> allowableValues(Type type) {
-        if (type == null || type.asClassDoc() == null)
+    public static Collection<String> allowableValues(TypeRef type) {
+        if (type == null || type.getClassRef() == null)
             return emptyList();
 
-        FieldDoc[] fields = type.asClassDoc().enumConstants();
-        if (isEmpty(fields))
-            return emptyList();
-
-        Collection<String> values = new ArrayList<String>(fields.length);
-        for (FieldDoc field : fields)
-            values.add(field.name());
-
-        return values;
+        return type.getClassRef().getEnumConstants();
     }
 
     /**
-     * Checks the class doc to see if it is a type or subtype of the provided class or object.
-     * @param classDoc
+     * Checks the class to see if it is a type or subtype of the provided class or object.
+     * @param classRef
      * @param targetClazz
      * @param <T>
      * @return
      */
-    private static <T> boolean isType(ClassDoc classDoc, Class<T> targetClazz) {
-        if (classDoc == null)
-            return false;
-
-        if (classDoc.qualifiedTypeName().equals(targetClazz.getName()))
-            return true;
-
-        if (isType(classDoc.superclass(), targetClazz))
-            return true;
-
-        for (ClassDoc iface : classDoc.interfaces())
-            if (isType(iface, targetClazz))
-                return true;
-
-        return false;
+    private static <T> boolean isType(ClassRef classRef, Class<T> targetClazz) {
+        return classRef != null && classRef.isSubtypeOf(targetClazz.getName());
     }
 
 }
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.collector;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.calrissian.restdoclet.model.ClassDescriptor;
+import org.calrissian.restdoclet.model.Endpoint;
+import org.calrissian.restdoclet.model.PathVar;
+import org.calrissian.restdoclet.model.QueryParam;
+import org.calrissian.restdoclet.model.RequestBody;
+import org.calrissian.restdoclet.util.PathTrie;
+import org.junit.After;
+import org.junit.Test;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class EndpointRegistryTest {
+
+    @After
+    public void clearPaths() {
+        PathTrie.clear();
+    }
+
+    @Test
+    public void mergesEndpointsWithTheSameMethodAndPath() {
+        Endpoint spring = new Endpoint("/orders/{id}", "GET",
+                asList(new QueryParam("expand", false, "", null), new QueryParam("fields", false, "spring", null)),
+                singletonList(new PathVar("id", "spring", null)),
+                null,
+                singletonList("application/json"),
+                singletonList("application/json"),
+                "",
+                "Spring description",
+                null);
+        Endpoint jaxrs = new Endpoint("orders//{id}/", "GET",
+                asList(new QueryParam("fields", true, "jaxrs", null), new QueryParam("limit", false, "", null)),
+                singletonList(new PathVar("id", "jaxrs", null)),
+                new RequestBody("body", "", null),
+                singletonList("application/xml"),
+                asList("application/json", "application/xml"),
+                "Short",
+                "JAX-RS description",
+                null);
+
+        EndpointRegistry registry = new EndpointRegistry();
+        registry.add(new ClassDescriptor("Orders", "/", singletonList(spring), "From Spring"));
+        registry.add(new ClassDescriptor("Orders", "/", singletonList(jaxrs), "From JAX-RS"));
+        List<ClassDescriptor> descriptors = new ArrayList<ClassDescriptor>(registry.getDescriptors());
+
+        //The second descriptor is dropped once its only endpoint is merged into the first one.
+        assertEquals(1, descriptors.size());
+        assertEquals("From Spring", descriptors.get(0).getDescription());
+        assertEquals(1, descriptors.get(0).getEndpoints().size());
+
+        Endpoint merged = descriptors.get(0).getEndpoints().iterator().next();
+        assertEquals("/orders/{id}", merged.getPath());
+        assertEquals("GET", merged.getHttpMethod());
+        assertEquals(asList("expand", "fields", "limit"), queryParamNames(merged.getQueryParams()));
+        assertEquals("spring", merged.getQueryParams().toArray(new QueryParam[0])[1].getDescription());
+        assertEquals(1, merged.getPathVars().size());
+        assertEquals("spring", merged.getPathVars().iterator().next().getDescription());
+        assertEquals("body", merged.getRequestBody().getName());
+        assertEquals(asList("application/json", "application/xml"), new ArrayList<String>(merged.getConsumes()));
+        assertEquals(asList("application/json", "application/xml"), new ArrayList<String>(merged.getProduces()));
+        assertEquals("Short", merged.getShortDescription());
+        assertEquals("Spring description", merged.getDescription());
+    }
+
+    @Test
+    public void keepsEndpointsWithADifferentMethodOrPath() {
+        Endpoint get = endpoint("/orders", "GET");
+        Endpoint post = endpoint("/orders", "POST");
+        Endpoint item = endpoint("/orders/{id}", "GET");
+        ClassDescriptor first = new ClassDescriptor("Orders", "/", singletonList(get), "");
+        ClassDescriptor second = new ClassDescriptor("Orders", "/", asList(post, item), "");
+
+        EndpointRegistry registry = new EndpointRegistry();
+        registry.add(first);
+        registry.add(second);
+        List<ClassDescriptor> descriptors = new ArrayList<ClassDescriptor>(registry.getDescriptors());
+
+        //Descriptors without any merged endpoints are returned as they are.
+        assertEquals(2, descriptors.size());
+        assertSame(first, descriptors.get(0));
+        assertSame(second, descriptors.get(1));
+    }
+
+    private static Endpoint endpoint(String path, String httpMethod) {
+        return new Endpoint(path, httpMethod, Collections.<QueryParam>emptyList(), Collections.<PathVar>emptyList(),
+                null, Collections.<String>emptyList(), Collections.<String>emptyList(), "", "", null);
+    }
+
+    private static List<String> queryParamNames(Collection<QueryParam> queryParams) {
+        List<String> names = new ArrayList<String>();
+        for (QueryParam queryParam : queryParams)
+            names.add(queryParam.getName());
+
+        return names;
+    }
+}
@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.collector.jaxrs;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.sun.javadoc.ClassDoc;
+import com.sun.javadoc.LanguageVersion;
+import com.sun.javadoc.RootDoc;
+import org.calrissian.restdoclet.Configuration;
+import org.calrissian.restdoclet.RestDoclet;
+import org.calrissian.restdoclet.collector.CollectorDispatcher;
+import org.calrissian.restdoclet.model.ClassDescriptor;
+import org.calrissian.restdoclet.model.Endpoint;
+import org.calrissian.restdoclet.util.DocCache;
+import org.calrissian.restdoclet.util.PathTrie;
+import org.calrissian.restdoclet.util.StringPool;
+import org.calrissian.restdoclet.util.TypeRefs;
+import org.junit.Test;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+
+public class JaxRSCollectorTest {
+
+    /**
+     * Orders and Customers have locators which lead to each other.  Each class is followed into the other one, and the
+     * locator leading back to the class being described is cut, whichever class is described first.
+     */
+    @Test
+    public void recursiveLocatorsDoNotDependOnClassOrder() throws Exception {
+        Map<String, List<String>> forward = describe(false, 1);
+        Map<String, List<String>> reversed = describe(true, 1);
+
+        assertEquals(asList("GET /orders", "GET /orders/{order}/customer"), forward.get("Orders"));
+        assertEquals(asList("GET /customers", "GET /customers/{customer}/orders"), forward.get("Customers"));
+        assertEquals(asList("GET /invoices", "GET /invoices/{invoice}/order",
+                "GET /invoices/{invoice}/order/{order}/customer"), forward.get("Invoices"));
+        assertEquals(forward, reversed);
+    }
+
+    @Test
+    public void recursiveLocatorsDoNotDependOnThreads() throws Exception {
+        Map<String, List<String>> expected = describe(false, 1);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(expected, describe(false, 4));
+            assertEquals(expected, describe(true, 4));
+        }
+    }
+
+    /**
+     * Runs javadoc on the locator sources and describes them with a JAX-RS collector.
+     *
+     * @return the endpoints of each class by the name of the class
+     */
+    private static Map<String, List<String>> describe(boolean reverse, int threads) throws Exception {
+        File sources = new File(JaxRSCollectorTest.class.getResource("/sources/locators").toURI());
+        File api = new File(javax.ws.rs.Path.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+
+        List<String> args = new ArrayList<String>(asList("-quiet", "-classpath", api.getPath(),
+                "-threads", String.valueOf(threads)));
+        for (File source : sources.listFiles())
+            args.add(source.getPath());
+
+        StringWriter errors = new StringWriter();
+        PrintWriter out = new PrintWriter(errors);
+        DescribingDoclet.reverse = reverse;
+        int status = com.sun.tools.javadoc.Main.execute("javadoc", out, out, out, DescribingDoclet.class.getName(),
+                DescribingDoclet.class.getClassLoader(), args.toArray(new String[args.size()]));
+        out.flush();
+
+        assertEquals(errors.toString(), 0, status);
+        return DescribingDoclet.described;
+    }
+
+    /**
+     * Describes the classes of a run, optionally in the reverse of the order javadoc provides them in.
+     */
+    public static class DescribingDoclet {
+        private static boolean reverse;
+        private static Map<String, List<String>> described;
+
+        public static boolean start(RootDoc root) {
+            Configuration config = new Configuration(root.options(), root);
+            try {
+                Collection<ClassDescriptor> descriptors =
+                        new CollectorDispatcher(singletonList(new JaxRSCollector()), config)
+                                .getDescriptors(reverse ? reverse(root) : root);
+
+                described = new TreeMap<String, List<String>>();
+                for (ClassDescriptor descriptor : descriptors) {
+                    List<String> endpoints = new ArrayList<String>();
+                    for (Endpoint endpoint : descriptor.getEndpoints())
+                        endpoints.add(endpoint.getHttpMethod() + " " + endpoint.getPath());
+                    described.put(descriptor.getName(), endpoints);
+                }
+
+                return true;
+            } finally {
+                DocCache.clearAll();
+                PathTrie.clear();
+                TypeRefs.clear();
+                StringPool.clear();
+            }
+        }
+
+        public static int optionLength(String option) {
+            return RestDoclet.optionLength(option);
+        }
+
+        public static LanguageVersion languageVersion() {
+            return LanguageVersion.JAVA_1_5;
+        }
+
+        private static RootDoc reverse(final RootDoc root) {
+            return (RootDoc) Proxy.newProxyInstance(RootDoc.class.getClassLoader(), new Class<?>[] {RootDoc.class},
+                    (proxy, method, args) -> {
+                        Object result = method.invoke(root, args);
+                        if (!method.getName().equals("classes"))
+                            return result;
+
+                        List<ClassDoc> classes = new ArrayList<ClassDoc>(Arrays.asList((ClassDoc[]) result));
+                        Collections.reverse(classes);
+                        return classes.toArray(new ClassDoc[classes.size()]);
+                    });
+        }
+    }
+}
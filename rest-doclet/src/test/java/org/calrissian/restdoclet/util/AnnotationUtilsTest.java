@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.util;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.sun.javadoc.ClassDoc;
+import com.sun.javadoc.LanguageVersion;
+import com.sun.javadoc.MethodDoc;
+import com.sun.javadoc.RootDoc;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AnnotationUtilsTest {
+
+    private static final String MAPPING = "aliases.Mapping";
+    private static final String GET_MAPPING = "aliases.GetMapping";
+
+    private static Map<String, AnnotationIndex> indexes;
+
+    @BeforeClass
+    public static void index() throws Exception {
+        File sources = new File(AnnotationUtilsTest.class.getResource("/sources/aliases").toURI());
+
+        List<String> args = new ArrayList<String>(singletonList("-quiet"));
+        addSources(sources, args);
+
+        StringWriter errors = new StringWriter();
+        PrintWriter out = new PrintWriter(errors);
+        int status = com.sun.tools.javadoc.Main.execute("javadoc", out, out, out, IndexingDoclet.class.getName(),
+                IndexingDoclet.class.getClassLoader(), args.toArray(new String[args.size()]));
+        out.flush();
+
+        assertEquals(errors.toString(), 0, status);
+        indexes = IndexingDoclet.indexes;
+    }
+
+    @Test
+    public void localAliasesShareTheirValue() {
+        AnnotationIndex index = indexes.get("Items");
+
+        assertEquals(singletonList("items"), index.getElementValue(MAPPING, "path"));
+        assertEquals(singletonList("items"), index.getElementValue(MAPPING, "value"));
+
+        index = indexes.get("Items.clear");
+        assertEquals(singletonList(MAPPING), new ArrayList<String>(index.getNames()));
+        assertEquals(singletonList("all"), index.getElementValue(MAPPING, "path"));
+        assertEquals(singletonList("DELETE"), index.getElementValue(MAPPING, "method"));
+    }
+
+    @Test
+    public void metaAnnotationsAreIncluded() {
+        AnnotationIndex index = indexes.get("Items.list");
+
+        assertEquals(asList(GET_MAPPING, MAPPING), new ArrayList<String>(index.getNames()));
+        assertEquals(singletonList("GET"), index.getElementValue(MAPPING, "method"));
+    }
+
+    @Test
+    public void aliasesOverrideTheAttributesOfMetaAnnotations() {
+        AnnotationIndex list = indexes.get("Items.list");
+        assertEquals(singletonList("list"), list.getElementValue(MAPPING, "value"));
+        assertEquals(singletonList("list"), list.getElementValue(MAPPING, "path"));
+
+        AnnotationIndex search = indexes.get("Items.search");
+        assertEquals(singletonList("search"), search.getElementValue(MAPPING, "value"));
+        assertEquals(singletonList("search"), search.getElementValue(MAPPING, "path"));
+        assertEquals(singletonList("GET"), search.getElementValue(MAPPING, "method"));
+    }
+
+    @Test
+    public void aliasesApplyAcrossSeveralLevels() {
+        AnnotationIndex index = indexes.get("Items.get");
+
+        assertTrue(index.contains("aliases.ItemMapping"));
+        assertEquals(singletonList("{id}"), index.getElementValue(GET_MAPPING, "path"));
+        assertEquals(singletonList("{id}"), index.getElementValue(MAPPING, "path"));
+        assertEquals(singletonList("{id}"), index.getElementValue(MAPPING, "value"));
+        assertEquals(singletonList("GET"), index.getElementValue(MAPPING, "method"));
+    }
+
+    private static void addSources(File directory, List<String> args) {
+        for (File file : directory.listFiles()) {
+            if (file.isDirectory())
+                addSources(file, args);
+            else
+                args.add(file.getPath());
+        }
+    }
+
+    /**
+     * Indexes the annotations of every class and method of a run, keyed by the simple class name and the class and
+     * method name.
+     */
+    public static class IndexingDoclet {
+        private static Map<String, AnnotationIndex> indexes;
+
+        public static boolean start(RootDoc root) {
+            try {
+                indexes = new HashMap<String, AnnotationIndex>();
+                for (ClassDoc classDoc : root.classes()) {
+                    indexes.put(classDoc.name(), AnnotationUtils.getAnnotationIndex(classDoc));
+                    for (MethodDoc method : classDoc.methods())
+                        indexes.put(classDoc.name() + "." + method.name(), AnnotationUtils.getAnnotationIndex(method));
+                }
+
+                return true;
+            } finally {
+                DocCache.clearAll();
+            }
+        }
+
+        public static LanguageVersion languageVersion() {
+            return LanguageVersion.JAVA_1_5;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.util;
+
+import org.junit.Test;
+
+import static org.calrissian.restdoclet.util.CommonUtils.fixPath;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class CommonUtilsTest {
+
+    @Test
+    public void fixPathKeepsNormalPaths() {
+        String path = "/users/{id}";
+        assertSame(path, fixPath(path));
+        assertEquals("/", fixPath("/"));
+    }
+
+    @Test
+    public void fixPathAddsLeadingSeparator() {
+        assertEquals("/", fixPath(null));
+        assertEquals("/", fixPath(""));
+        assertEquals("/users", fixPath("users"));
+    }
+
+    @Test
+    public void fixPathRemovesDuplicateSeparators() {
+        assertEquals("/users/{id}", fixPath("//users///{id}"));
+        assertEquals("/", fixPath("///"));
+    }
+
+    @Test
+    public void fixPathRemovesOnlyTheTrailingSeparator() {
+        assertEquals("/users", fixPath("/users/"));
+        assertEquals("/users", fixPath("users//"));
+        assertEquals("/a", fixPath("a/"));
+    }
+}
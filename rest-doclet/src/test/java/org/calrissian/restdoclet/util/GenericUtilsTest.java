@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.util;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.sun.javadoc.ClassDoc;
+import com.sun.javadoc.LanguageVersion;
+import com.sun.javadoc.MethodDoc;
+import com.sun.javadoc.Parameter;
+import com.sun.javadoc.RootDoc;
+import com.sun.javadoc.Type;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+
+public class GenericUtilsTest {
+
+    private static Map<String, String> resolved;
+
+    @BeforeClass
+    public static void resolve() throws Exception {
+        File sources = new File(GenericUtilsTest.class.getResource("/sources/generics").toURI());
+
+        List<String> args = new ArrayList<String>(singletonList("-quiet"));
+        for (File source : sources.listFiles())
+            args.add(source.getPath());
+
+        StringWriter errors = new StringWriter();
+        PrintWriter out = new PrintWriter(errors);
+        int status = com.sun.tools.javadoc.Main.execute("javadoc", out, out, out, ResolvingDoclet.class.getName(),
+                ResolvingDoclet.class.getClassLoader(), args.toArray(new String[args.size()]));
+        out.flush();
+
+        assertEquals(errors.toString(), 0, status);
+        resolved = ResolvingDoclet.resolved;
+    }
+
+    @Test
+    public void bindsTheTypeArgumentsOfTheSuperclass() {
+        assertEquals("{T=generics.Widget}", resolved.get("Widgets"));
+        assertEquals("{E=generics.Widget}", resolved.get("Gadgets"));
+        assertEquals("{}", resolved.get("Raw"));
+    }
+
+    @Test
+    public void bindsTheTypeArgumentsOfFartherSuperclasses() {
+        assertEquals("{T=java.util.List<generics.Widget>}", resolved.get("Gadgets to Base"));
+    }
+
+    @Test
+    public void substitutesTypeVariables() {
+        assertEquals("generics.Widget", resolved.get("Widgets.create"));
+        assertEquals("generics.Widget", resolved.get("Widgets.create(body)"));
+        assertEquals("java.util.List<generics.Widget>", resolved.get("Gadgets.create"));
+    }
+
+    @Test
+    public void substitutesArraysAndTypeArguments() {
+        assertEquals("generics.Widget[]", resolved.get("Widgets.list"));
+        assertEquals("java.util.List<generics.Widget>[]", resolved.get("Gadgets.list"));
+        assertEquals("java.util.List<generics.Widget>", resolved.get("Widgets.find"));
+        assertEquals("java.util.Map<java.lang.String,generics.Widget>", resolved.get("Widgets.find(filter)"));
+    }
+
+    @Test
+    public void keepsTypeVariablesOfMethods() {
+        assertEquals("T", resolved.get("Widgets.convert"));
+    }
+
+    @Test
+    public void keepsTypesOfRawSuperclasses() {
+        assertEquals("T", resolved.get("Raw.create"));
+    }
+
+    /**
+     * Resolves the types of the methods of the base class for each of its subclasses, keyed by the simple class name
+     * and the method name, and the name of the parameter for parameter types.  The type arguments of each subclass
+     * are keyed by the class name.
+     */
+    public static class ResolvingDoclet {
+        private static Map<String, String> resolved;
+
+        public static boolean start(RootDoc root) {
+            try {
+                resolved = new TreeMap<String, String>();
+                ClassDoc base = root.classNamed("generics.Base");
+                for (ClassDoc classDoc : root.classes()) {
+                    if (classDoc == base || !classDoc.subclassOf(base))
+                        continue;
+
+                    ClassDoc superclass = classDoc.superclass();
+                    resolved.put(classDoc.name(), new TreeMap<String, Type>(
+                            GenericUtils.getTypeArguments(classDoc, superclass)).toString());
+
+                    Map<String, Type> arguments = GenericUtils.getTypeArguments(classDoc, base);
+                    if (superclass != base)
+                        resolved.put(classDoc.name() + " to Base", new TreeMap<String, Type>(arguments).toString());
+
+                    for (MethodDoc method : base.methods()) {
+                        String name = classDoc.name() + "." + method.name();
+                        resolved.put(name, GenericUtils.resolve(method.returnType(), arguments).toString());
+                        for (Parameter parameter : method.parameters())
+                            resolved.put(name + "(" + parameter.name() + ")",
+                                    GenericUtils.resolve(parameter.type(), arguments).toString());
+                    }
+                }
+
+                return true;
+            } finally {
+                DocCache.clearAll();
+            }
+        }
+
+        public static LanguageVersion languageVersion() {
+            return LanguageVersion.JAVA_1_5;
+        }
+    }
+}
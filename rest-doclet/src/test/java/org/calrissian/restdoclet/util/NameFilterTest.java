@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.util;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class NameFilterTest {
+
+    @Test
+    public void acceptsEverythingWithoutPatterns() {
+        NameFilter filter = NameFilter.compile(Collections.<String>emptyList(), asList(" ", "."));
+
+        assertTrue(filter.isEmpty());
+        assertTrue(filter.accepts("com.acme.api.Orders"));
+    }
+
+    @Test
+    public void plainPatternMatchesTheNameAndEverythingBelowIt() {
+        NameFilter filter = NameFilter.compile(asList("com.acme.api", "com.acme.web.Outer."),
+                Collections.<String>emptyList());
+
+        assertTrue(filter.accepts("com.acme.api"));
+        assertTrue(filter.accepts("com.acme.api.Orders"));
+        assertTrue(filter.accepts("com.acme.api.v2.Orders"));
+        assertTrue(filter.accepts("com.acme.web.Outer.Inner"));
+        assertFalse(filter.accepts("com.acme.apix.Orders"));
+        assertFalse(filter.accepts("com.acme.Orders"));
+        assertFalse(filter.accepts("com.acme.web.Other"));
+    }
+
+    @Test
+    public void wildcardsMatchWithinOneSegment() {
+        NameFilter filter = NameFilter.compile(asList("com.acme.*.Order?"), Collections.<String>emptyList());
+
+        assertTrue(filter.accepts("com.acme.api.Orders"));
+        assertTrue(filter.accepts("com.acme.web.OrderX"));
+        assertFalse(filter.accepts("com.acme.api.v2.Orders"));
+        assertFalse(filter.accepts("com.acme.api.Order"));
+        assertFalse(filter.accepts("com.acme.api.Orders.Item"));
+    }
+
+    @Test
+    public void doubleWildcardMatchesAnyNumberOfSegments() {
+        NameFilter filter = NameFilter.compile(asList("com.**.*Resource"), Collections.<String>emptyList());
+
+        assertTrue(filter.accepts("com.OrderResource"));
+        assertTrue(filter.accepts("com.acme.api.v2.OrderResource"));
+        assertFalse(filter.accepts("com.acme.api.OrderService"));
+        assertFalse(filter.accepts("org.acme.OrderResource"));
+    }
+
+    @Test
+    public void excludesWinOverIncludes() {
+        NameFilter filter = NameFilter.compile(asList("com.acme"), asList("com.acme.internal", "**.*Test"));
+
+        assertTrue(filter.accepts("com.acme.api.Orders"));
+        assertFalse(filter.accepts("com.acme.internal.Admin"));
+        assertFalse(filter.accepts("com.acme.api.OrdersTest"));
+        assertFalse(filter.accepts("org.acme.Orders"));
+    }
+}
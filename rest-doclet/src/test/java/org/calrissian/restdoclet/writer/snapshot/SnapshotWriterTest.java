@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.writer.snapshot;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import org.calrissian.restdoclet.model.ClassDescriptor;
+import org.calrissian.restdoclet.model.ClassRef;
+import org.calrissian.restdoclet.model.Endpoint;
+import org.calrissian.restdoclet.model.EndpointCore;
+import org.calrissian.restdoclet.model.FieldRef;
+import org.calrissian.restdoclet.model.PathVar;
+import org.calrissian.restdoclet.model.QueryParam;
+import org.calrissian.restdoclet.model.RequestBody;
+import org.calrissian.restdoclet.model.TypeRef;
+import org.calrissian.restdoclet.util.Lazy;
+import org.calrissian.restdoclet.util.PathTrie;
+import org.calrissian.restdoclet.writer.DescriptorSink;
+import org.junit.After;
+import org.junit.Test;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SnapshotWriterTest {
+
+    @After
+    public void clearPaths() {
+        PathTrie.clear();
+    }
+
+    @Test
+    public void readsBackWhatWasWritten() throws IOException {
+        ClassRef entity = new ClassRef("shop.Entity", new LinkedHashSet<String>(asList("shop.Entity")),
+                Collections.<String>emptyList(), new ArrayList<FieldRef>(), null);
+        List<FieldRef> itemFields = new ArrayList<FieldRef>();
+        ClassRef item = new ClassRef("shop.Item", new LinkedHashSet<String>(asList("shop.Item", "shop.Entity")),
+                Collections.<String>emptyList(), itemFields, entity);
+        TypeRef itemType = new TypeRef(TypeRef.Kind.CLASS, "shop.Item", "Item", "", null, item);
+        TypeRef stringType = new TypeRef(TypeRef.Kind.CLASS, "java.lang.String", "String", "", null, null);
+
+        //The parent field leads back to the item, so the classes refer to each other.
+        itemFields.add(new FieldRef("parent", itemType, "The parent item", true));
+        itemFields.add(new FieldRef("tags", stringType.withDimension("[]"), null, false));
+
+        Collection<QueryParam> queryParams =
+                singletonList(new QueryParam("expand", true, "Parts to expand", stringType));
+        Collection<PathVar> pathVars = singletonList(new PathVar("id", "The item id", stringType));
+        EndpointCore core = new EndpointCore(
+                Lazy.value(queryParams),
+                Lazy.value(pathVars),
+                Lazy.value(new RequestBody("item", "The new item", itemType)),
+                asList("application/json", "application/xml"),
+                singletonList("application/json"),
+                Lazy.value("Updates an item"),
+                Lazy.value("Updates an item and returns it"),
+                itemType);
+        ClassDescriptor items = new ClassDescriptor("Items", "/shop", asList(
+                new Endpoint(PathTrie.intern("/shop/items/{id}"), "PUT", core),
+                new Endpoint(PathTrie.intern("/shop/items/{id}/copy"), "POST", core)),
+                "The items of the shop", "shop.ItemResource");
+        ClassDescriptor legacy = new ClassDescriptor("Legacy", "/", singletonList(
+                new Endpoint("/legacy", "GET", Collections.<QueryParam>emptyList(), Collections.<PathVar>emptyList(),
+                        null, Collections.<String>emptyList(), Collections.<String>emptyList(), null, null,
+                        itemType.withDimension("[]"))),
+                null);
+
+        List<ClassDescriptor> read = roundTrip(items, legacy);
+        assertEquals(2, read.size());
+
+        ClassDescriptor readItems = read.get(0);
+        assertEquals("Items", readItems.getName());
+        assertEquals("/shop", readItems.getContextPath());
+        assertEquals("The items of the shop", readItems.getDescription());
+        assertEquals("shop.ItemResource", readItems.getQualifiedName());
+
+        List<Endpoint> endpoints = new ArrayList<Endpoint>(readItems.getEndpoints());
+        assertEquals(2, endpoints.size());
+        assertEquals("/shop/items/{id}", endpoints.get(0).getPath());
+        assertEquals("PUT", endpoints.get(0).getHttpMethod());
+        assertEquals("/shop/items/{id}/copy", endpoints.get(1).getPath());
+        assertSame(PathTrie.intern("/shop/items/{id}/copy"), endpoints.get(1).getPathNode());
+
+        //Endpoints which shared a core when written share one when read.
+        EndpointCore readCore = endpoints.get(0).getCore();
+        assertSame(readCore, endpoints.get(1).getCore());
+
+        QueryParam queryParam = readCore.getQueryParams().iterator().next();
+        assertEquals("expand", queryParam.getName());
+        assertTrue(queryParam.isRequired());
+        assertEquals("Parts to expand", queryParam.getDescription());
+        assertEquals("java.lang.String", queryParam.getType().getQualifiedName());
+        assertNull(queryParam.getType().getClassRef());
+
+        PathVar pathVar = readCore.getPathVars().iterator().next();
+        assertEquals("id", pathVar.getName());
+        assertEquals("The item id", pathVar.getDescription());
+
+        assertEquals("item", readCore.getRequestBody().getName());
+        assertEquals(asList("application/json", "application/xml"), new ArrayList<String>(readCore.getConsumes()));
+        assertEquals(singletonList("application/json"), new ArrayList<String>(readCore.getProduces()));
+        assertEquals("Updates an item", readCore.getShortDescription());
+        assertEquals("Updates an item and returns it", readCore.getDescription());
+
+        TypeRef readType = readCore.getType();
+        assertEquals(TypeRef.Kind.CLASS, readType.getKind());
+        assertEquals("Item", readType.getSimpleName());
+        assertFalse(readType.isArray());
+
+        ClassRef readItem = readType.getClassRef();
+        assertEquals("shop.Item", readItem.getQualifiedName());
+        assertTrue(readItem.isSubtypeOf("shop.Entity"));
+        assertEquals("shop.Entity", readItem.getSuperclass().getQualifiedName());
+        assertEquals(2, readItem.getFields().size());
+
+        FieldRef parent = readItem.getFields().get(0);
+        assertEquals("parent", parent.getName());
+        assertEquals("The parent item", parent.getDescription());
+        assertTrue(parent.isSettable());
+        assertSame(readItem, parent.getType().getClassRef());
+
+        FieldRef tags = readItem.getFields().get(1);
+        assertEquals("[]", tags.getType().getDimension());
+        assertNull(tags.getDescription());
+        assertFalse(tags.isSettable());
+
+        //Classes written for an earlier descriptor are referred to by number.
+        ClassDescriptor readLegacy = read.get(1);
+        assertNull(readLegacy.getDescription());
+        assertNull(readLegacy.getQualifiedName());
+
+        Endpoint endpoint = readLegacy.getEndpoints().iterator().next();
+        assertNull(endpoint.getShortDescription());
+        assertNull(endpoint.getRequestBody());
+        assertEquals("[]", endpoint.getType().getDimension());
+        assertSame(readItem, endpoint.getType().getClassRef());
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsOtherVersions() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new SnapshotEncoder(out).close();
+
+        byte[] snapshot = out.toByteArray();
+        snapshot[7]++;
+        new SnapshotReader(new ByteArrayInputStream(snapshot));
+    }
+
+    private static List<ClassDescriptor> roundTrip(ClassDescriptor... classDescriptors) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SnapshotEncoder encoder = new SnapshotEncoder(out);
+        try {
+            for (ClassDescriptor classDescriptor : classDescriptors)
+                encoder.accept(classDescriptor);
+        } finally {
+            encoder.close();
+        }
+
+        final List<ClassDescriptor> read = new ArrayList<ClassDescriptor>();
+        new SnapshotReader(new ByteArrayInputStream(out.toByteArray())).read(new DescriptorSink() {
+            @Override
+            public void accept(ClassDescriptor classDescriptor) {
+                read.add(classDescriptor);
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+
+        return read;
+    }
+}
@@ -0,0 +1,23 @@
+package aliases;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.springframework.core.annotation.AliasFor;
+
+/**
+ * A mapping composed from {@link Mapping}, like Spring's GetMapping.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.ANNOTATION_TYPE})
+@Mapping(method = "GET")
+public @interface GetMapping {
+
+    @AliasFor(annotation = Mapping.class)
+    String[] value() default {};
+
+    @AliasFor(annotation = Mapping.class)
+    String[] path() default {};
+}
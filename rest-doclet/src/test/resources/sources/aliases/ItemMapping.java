@@ -0,0 +1,20 @@
+package aliases;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.springframework.core.annotation.AliasFor;
+
+/**
+ * A mapping composed from {@link GetMapping}, which renames the attribute it aliases.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@GetMapping
+public @interface ItemMapping {
+
+    @AliasFor(annotation = GetMapping.class, attribute = "path")
+    String[] location() default {};
+}
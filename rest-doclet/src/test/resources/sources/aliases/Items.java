@@ -0,0 +1,24 @@
+package aliases;
+
+/**
+ * Uses the mappings directly and through every level of composition.
+ */
+@Mapping(path = "items")
+public class Items {
+
+    @GetMapping("list")
+    public void list() {
+    }
+
+    @GetMapping(path = "search")
+    public void search() {
+    }
+
+    @ItemMapping(location = "{id}")
+    public void get() {
+    }
+
+    @Mapping(value = "all", method = "DELETE")
+    public void clear() {
+    }
+}
@@ -0,0 +1,29 @@
+package generics;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A generic base class, whose type variable is bound by its subclasses.
+ */
+public abstract class Base<T> {
+
+    public T create(T body) {
+        return body;
+    }
+
+    public T[] list() {
+        return null;
+    }
+
+    public List<T> find(Map<String, T> filter) {
+        return null;
+    }
+
+    /**
+     * Declares a type variable of its own, which shadows the one of the class.
+     */
+    public <T> T convert(T value) {
+        return value;
+    }
+}
@@ -0,0 +1,4 @@
+package generics;
+
+public class Gadgets extends Middle<Widget> {
+}
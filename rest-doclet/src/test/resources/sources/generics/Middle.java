@@ -0,0 +1,9 @@
+package generics;
+
+import java.util.List;
+
+/**
+ * Binds the type variable of its superclass with one of its own.
+ */
+public abstract class Middle<E> extends Base<List<E>> {
+}
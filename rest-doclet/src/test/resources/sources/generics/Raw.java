@@ -0,0 +1,5 @@
+package generics;
+
+@SuppressWarnings("rawtypes")
+public class Raw extends Base {
+}
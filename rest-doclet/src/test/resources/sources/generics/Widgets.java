@@ -0,0 +1,4 @@
+package generics;
+
+public class Widgets extends Base<Widget> {
+}
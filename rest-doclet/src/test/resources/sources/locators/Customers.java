@@ -0,0 +1,28 @@
+package locators;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+
+/**
+ * The customers, with a locator back to the orders of a customer.
+ */
+@Path("customers")
+public class Customers {
+
+    /**
+     * Lists the customers.
+     */
+    @GET
+    public String list() {
+        return null;
+    }
+
+    /**
+     * The orders placed by the customer.
+     */
+    @Path("{customer}/orders")
+    public Orders orders(@PathParam("customer") String customer) {
+        return null;
+    }
+}
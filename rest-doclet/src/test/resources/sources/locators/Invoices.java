@@ -0,0 +1,28 @@
+package locators;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+
+/**
+ * The invoices, with a locator into the orders.
+ */
+@Path("invoices")
+public class Invoices {
+
+    /**
+     * Lists the invoices.
+     */
+    @GET
+    public String list() {
+        return null;
+    }
+
+    /**
+     * The order which was invoiced.
+     */
+    @Path("{invoice}/order")
+    public Orders order(@PathParam("invoice") String invoice) {
+        return null;
+    }
+}
@@ -0,0 +1,28 @@
+package locators;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+
+/**
+ * The orders, with a locator to the customer of an order.
+ */
+@Path("orders")
+public class Orders {
+
+    /**
+     * Lists the orders.
+     */
+    @GET
+    public String list() {
+        return null;
+    }
+
+    /**
+     * The customer who placed the order.
+     */
+    @Path("{order}/customer")
+    public Customers customer(@PathParam("order") String order) {
+        return null;
+    }
+}
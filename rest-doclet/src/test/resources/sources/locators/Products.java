@@ -0,0 +1,19 @@
+package locators;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+
+/**
+ * The products.
+ */
+@Path("products")
+public class Products {
+
+    /**
+     * Lists the products.
+     */
+    @GET
+    public String list() {
+        return null;
+    }
+}
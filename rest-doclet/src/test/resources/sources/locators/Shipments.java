@@ -0,0 +1,19 @@
+package locators;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+
+/**
+ * The shipments.
+ */
+@Path("shipments")
+public class Shipments {
+
+    /**
+     * Lists the shipments.
+     */
+    @GET
+    public String list() {
+        return null;
+    }
+}